@@ -0,0 +1,127 @@
+package com.carrotsearch.gradle.buildinfra.dependencychecks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of {@link DependencyGroups} merging, serialization and lock file comparison (the
+ * diff performed by {@link CheckLocks}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DependencyGroupsBenchmark {
+  @Param({"100", "1000"})
+  public int projects;
+
+  @Param({"1000", "10000"})
+  public int coordinates;
+
+  @Param({"1", "4"})
+  public int groups;
+
+  @Param({"100"})
+  public int depsPerProject;
+
+  private List<DependencyGroups> projectGroups;
+  private DependencyGroups merged;
+  private DependencyGroups changed;
+  private DependencyGroups fromLockFile;
+  private File lockFile;
+  private File binaryFile;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    projectGroups = SyntheticData.projectGroups(projects, coordinates, groups, depsPerProject, 42);
+    merged = SyntheticData.merged(projectGroups);
+
+    lockFile = File.createTempFile("versions", ".lock");
+    merged.writeTo("", lockFile);
+    binaryFile = File.createTempFile("resolved-configuration-groups", ".bin");
+    merged.writeBinaryTo(binaryFile);
+    fromLockFile = DependencyGroups.readFrom(lockFile);
+
+    // A few projects with a different set of dependencies.
+    var modified = SyntheticData.projectGroups(3, coordinates, groups, depsPerProject, 7);
+    changed = SyntheticData.merged(projectGroups.subList(3, projectGroups.size()));
+    modified.forEach(changed::merge);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(lockFile.toPath());
+    Files.deleteIfExists(binaryFile.toPath());
+  }
+
+  /** Inserts dependencies of all projects one by one, into a single group. */
+  @Benchmark
+  public DependencyGroups addOrMerge() {
+    var result = new DependencyGroups();
+    for (var groups : projectGroups) {
+      groups
+          .getDependencies()
+          .forEach(
+              (groupName, deps) -> {
+                for (var dep : deps) {
+                  result.addOrMerge("group", dep);
+                }
+              });
+    }
+    return result;
+  }
+
+  /**
+   * Merges groups of all projects in a tree of partial results, like the parallel merge of lock
+   * file tasks (with a parallelism of 4), but on a single thread.
+   */
+  @Benchmark
+  public DependencyGroups merge() {
+    return SyntheticData.treeMerged(projectGroups, Math.max(1, projects / 16));
+  }
+
+  @Benchmark
+  public void writeTo() throws IOException {
+    merged.writeTo("", Writer.nullWriter());
+  }
+
+  @Benchmark
+  public DependencyGroups readFrom() throws IOException {
+    return DependencyGroups.readFrom(lockFile);
+  }
+
+  @Benchmark
+  public DependencyGroups readBinaryFrom() throws IOException {
+    return DependencyGroups.readBinaryFrom(binaryFile);
+  }
+
+  @Benchmark
+  public TreeMap<String, List<String>> compareUnchanged() {
+    return CheckLocks.compare(merged, fromLockFile);
+  }
+
+  @Benchmark
+  public TreeMap<String, List<String>> compareChanged() {
+    return CheckLocks.compare(changed, fromLockFile);
+  }
+}
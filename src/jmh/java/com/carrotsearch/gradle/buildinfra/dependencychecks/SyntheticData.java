@@ -0,0 +1,76 @@
+package com.carrotsearch.gradle.buildinfra.dependencychecks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Generates synthetic, deterministic dependency groups for benchmarks: a number of projects, each
+ * contributing a random subset of a shared pool of dependency coordinates to each configuration
+ * group.
+ */
+final class SyntheticData {
+  private SyntheticData() {}
+
+  /**
+   * @param projects The number of projects.
+   * @param coordinates The size of the shared pool of dependency coordinates.
+   * @param groups The number of configuration groups.
+   * @param depsPerProject The number of dependencies each project contributes to each group.
+   * @param seed Random seed.
+   * @return Resolved dependency groups of each project.
+   */
+  static List<DependencyGroups> projectGroups(
+      int projects, int coordinates, int groups, int depsPerProject, long seed) {
+    var rnd = new Random(seed);
+
+    var pool = new ArrayList<DependencyCoordinates>(coordinates);
+    for (int i = 0; i < coordinates; i++) {
+      pool.add(
+          DependencyCoordinates.of(
+              String.format(Locale.ROOT, "org.synthetic.group%03d", i % 251),
+              "module-" + i,
+              "1." + (i % 17) + ".0"));
+    }
+
+    var result = new ArrayList<DependencyGroups>(projects);
+    for (int p = 0; p < projects; p++) {
+      var projectPath = ":project-" + p;
+      var projectGroups = new DependencyGroups();
+      for (int g = 0; g < groups; g++) {
+        var source = new DependencySource("configuration" + g, projectPath);
+        for (int d = 0; d < depsPerProject; d++) {
+          projectGroups.addOrMerge(
+              "group" + g,
+              new DependencyInfo(pool.get(rnd.nextInt(coordinates)), List.of(source)));
+        }
+      }
+      result.add(projectGroups);
+    }
+    return result;
+  }
+
+  /** Merges groups of all projects, like lock file tasks do. */
+  static DependencyGroups merged(List<DependencyGroups> projectGroups) {
+    var merged = new DependencyGroups();
+    for (var groups : projectGroups) {
+      merged.merge(groups);
+    }
+    return merged;
+  }
+
+  /**
+   * Merges groups of all projects pairwise: leaves of at most {@code leafSize} projects are merged
+   * first, then partial results are merged up the tree.
+   */
+  static DependencyGroups treeMerged(List<DependencyGroups> projectGroups, int leafSize) {
+    if (projectGroups.size() <= leafSize) {
+      return merged(projectGroups);
+    }
+    int mid = projectGroups.size() >>> 1;
+    var merged = treeMerged(projectGroups.subList(0, mid), leafSize);
+    merged.merge(treeMerged(projectGroups.subList(mid, projectGroups.size()), leafSize));
+    return merged;
+  }
+}
@@ -1,96 +1,363 @@
 package com.carrotsearch.gradle.buildinfra.dependencychecks;
 
-import static com.carrotsearch.gradle.buildinfra.dependencychecks.CheckLocks.fmt;
-
+import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import java.util.stream.Collectors;
+import javax.inject.Inject;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.GradleException;
 import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.FileSystemOperations;
+import org.gradle.api.file.FileType;
+import org.gradle.api.file.ProjectLayout;
 import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.InputFiles;
 import org.gradle.api.tasks.Internal;
-import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.work.Incremental;
+import org.gradle.work.InputChanges;
 
 /** Parent class for lock file tasks. */
 abstract class AbstractLockFileTask extends DefaultTask {
+  /**
+   * Resolved configuration group files of all projects. Their location is irrelevant (and their
+   * order does not affect the outcome of checks), so they are tracked by content only.
+   */
+  @Incremental
   @InputFiles
+  @PathSensitive(PathSensitivity.NONE)
   public abstract ConfigurableFileCollection getResolvedConfigurationGroups();
 
-  @OutputFile final RegularFileProperty lockFile = getProject().getObjects().fileProperty();
+  /** The lock file. Subclasses declare it as an input or an output, depending on their role. */
+  final RegularFileProperty lockFile = getProject().getObjects().fileProperty();
+
+  /**
+   * The number of threads used to read, merge and validate resolved configuration groups. Values
+   * larger than one enable parallel parsing and a pairwise (tree) merge of input files, as well as
+   * validation of configuration groups in parallel.
+   */
+  @Internal
+  public abstract Property<Integer> getMergeParallelism();
+
+  /** An optional registry of resolved groups handed off in memory by resolution tasks. */
+  @Internal
+  public abstract Property<ResolvedGroupsRegistry> getResolvedGroupsRegistry();
+
+  /** An optional service collecting phase metrics. */
+  @Internal
+  public abstract Property<PhaseMetrics> getPhaseMetrics();
+
+  @Inject
+  protected abstract FileSystemOperations getFileSystemOperations();
+
+  @Inject
+  protected abstract ProjectLayout getProjectLayout();
+
+  /** Records a phase (started at {@code startNanos}) if phase metrics are enabled. */
+  protected void recordPhase(String phase, long startNanos, long entries) {
+    PhaseMetrics.record(getPhaseMetrics(), getPath(), phase, null, startNanos, entries);
+  }
 
   @Internal
   protected DependencyGroups getMergedDependencyGroups() throws IOException {
-    DependencyGroups merged = new DependencyGroups();
-    for (var group : getResolvedConfigurationGroups()) {
-      merged.merge(DependencyGroups.readFrom(group));
+    try {
+      long start = System.nanoTime();
+      DependencyGroups merged = mergeDependencyGroups();
+      recordPhase(PhaseMetrics.MERGE, start, merged.size());
+      return merged;
+    } finally {
+      releaseResolvedGroups();
     }
-    return merged;
   }
 
-  protected void runValidationChecks(DependencyGroups mergedGroups) {
-    checkConsistentVersions(mergedGroups);
+  /** Releases in-memory resolved groups of this task's inputs, once they have been merged. */
+  private void releaseResolvedGroups() {
+    if (getResolvedGroupsRegistry().isPresent()) {
+      getResolvedGroupsRegistry().get().release(getResolvedConfigurationGroups().getFiles());
+    }
+  }
+
+  private DependencyGroups mergeDependencyGroups() throws IOException {
+    List<File> files = List.copyOf(getResolvedConfigurationGroups().getFiles());
+    int parallelism = getMergeParallelism().getOrElse(1);
+
+    if (parallelism <= 1 || files.size() <= 1) {
+      DependencyGroups merged = new DependencyGroups();
+      for (var group : files) {
+        merged.merge(readResolvedGroups(group));
+      }
+      return merged;
+    }
+
+    var pool = new ForkJoinPool(parallelism);
+    try {
+      int leafSize = Math.max(1, files.size() / (parallelism * 4));
+      var task = new MergeTask(this::readResolvedGroups, files, 0, files.size(), leafSize);
+      return pool.submit(task).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new GradleException("Interrupted while merging resolved configuration groups.", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof UncheckedIOException ioe) {
+        throw ioe.getCause();
+      }
+      throw new GradleException("Could not merge resolved configuration groups.", e.getCause());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /** Merged groups and coordinates affected by the merge. */
+  protected record IncrementalMerge(
+      DependencyGroups groups, Map<String, Set<DependencyCoordinates>> affected) {
+    /** @return {@code true} if all input files were merged (non-incremental merge). */
+    boolean isFull() {
+      return affected == null;
+    }
+  }
+
+  /**
+   * Merges resolved configuration groups incrementally, if possible. Only files changed since the
+   * previous execution are read then: their previous contributions (kept in the state directory)
+   * are subtracted from the previously merged groups and new contributions are added.
+   *
+   * <p>The result is the same as {@link #getMergedDependencyGroups()}, except for the order of
+   * dependency sources.
+   *
+   * @param inputChanges Changes of task inputs.
+   * @param stateDir A directory to keep merged groups and contributions of each input file in.
+   * @return Merged groups and coordinates affected by changed files in each group ({@code null}
+   *     if all files were merged).
+   */
+  protected IncrementalMerge getMergedDependencyGroups(InputChanges inputChanges, File stateDir)
+      throws IOException {
+    try {
+      return mergeIncrementally(inputChanges, stateDir);
+    } finally {
+      releaseResolvedGroups();
+    }
+  }
+
+  private IncrementalMerge mergeIncrementally(InputChanges inputChanges, File stateDir)
+      throws IOException {
+    File mergedFile = new File(stateDir, "merged.bin");
+    File contributionsDir = new File(stateDir, "contributions");
+
+    if (!inputChanges.isIncremental() || !mergedFile.isFile()) {
+      getFileSystemOperations().delete(spec -> spec.delete(stateDir));
+      Files.createDirectories(contributionsDir.toPath());
+
+      DependencyGroups merged = getMergedDependencyGroups();
+      for (var file : getResolvedConfigurationGroups().getFiles()) {
+        Files.copy(file.toPath(), contributionFile(contributionsDir, file).toPath());
+      }
+      writeMerged(merged, mergedFile);
+      return new IncrementalMerge(merged, null);
+    }
+
+    long start = System.nanoTime();
+    DependencyGroups merged = DependencyGroups.readBinaryFrom(mergedFile);
+    // Contributions are modified below, so drop the merged state first. If anything fails before
+    // it is written again, the next execution rebuilds everything from scratch.
+    Files.delete(mergedFile.toPath());
+    Map<String, Set<DependencyCoordinates>> affected = new TreeMap<>();
+
+    // Inputs are tracked by content only, so change types are not reliable (a removed file and an
+    // added file may be reported as a single modification). Reconcile each changed file, any
+    // input without a contribution and any contribution without an input instead.
+    var changed = new LinkedHashSet<File>();
+    for (var change : inputChanges.getFileChanges(getResolvedConfigurationGroups())) {
+      if (change.getFileType() != FileType.DIRECTORY) {
+        changed.add(change.getFile());
+      }
+    }
+    Map<File, File> inputToContribution = new HashMap<>();
+    for (var file : getResolvedConfigurationGroups().getFiles()) {
+      var contribution = contributionFile(contributionsDir, file);
+      inputToContribution.put(file, contribution);
+      if (!contribution.isFile()) {
+        changed.add(file);
+      }
+    }
+
+    var current = new HashSet<>(inputToContribution.values());
+    var stale = new ArrayList<File>();
+    for (var contribution : Objects.requireNonNull(contributionsDir.listFiles())) {
+      if (!current.contains(contribution)) {
+        stale.add(contribution);
+      }
+    }
+    int removedFiles = stale.size();
+    for (var file : changed) {
+      var contribution = inputToContribution.get(file);
+      if (contribution != null && contribution.isFile()) {
+        stale.add(contribution);
+      }
+    }
+
+    for (var contribution : stale) {
+      var previous = DependencyGroups.readBinaryFrom(contribution);
+      merged.subtract(previous);
+      addCoordinates(previous, affected);
+      Files.delete(contribution.toPath());
+    }
+
+    int changedFiles = 0;
+    for (var file : changed) {
+      var contribution = inputToContribution.get(file);
+      if (contribution != null) {
+        changedFiles++;
+        var groups = readResolvedGroups(file);
+        merged.merge(groups);
+        addCoordinates(groups, affected);
+        Files.copy(file.toPath(), contribution.toPath());
+      }
+    }
+    writeMerged(merged, mergedFile);
+    recordPhase(PhaseMetrics.MERGE, start, merged.size());
+
+    getLogger()
+        .info(
+            "Merged {} changed resolved configuration group file(s) incrementally.",
+            changedFiles + removedFiles);
+    return new IncrementalMerge(merged, affected);
+  }
+
+  /** Writes the merged state to a temporary file first, then moves it into place. */
+  private static void writeMerged(DependencyGroups merged, File mergedFile) throws IOException {
+    File tmp = new File(mergedFile.getPath() + ".tmp");
+    merged.writeBinaryTo(tmp);
+    Files.move(
+        tmp.toPath(),
+        mergedFile.toPath(),
+        StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
   }
 
   /**
-   * Check that there are no group:module pairs with different versions within each group, if so,
-   * fail (inconsistent versions detected).
+   * A file keeping the contribution of an input file. Its name is derived from the input's path
+   * relative to the project directory, so that the state is portable between build locations.
    */
-  private void checkConsistentVersions(DependencyGroups mergedGroups) {
-    mergedGroups
+  private File contributionFile(File contributionsDir, File file) {
+    Path projectDir = getProjectLayout().getProjectDirectory().getAsFile().toPath();
+    Path path = file.toPath();
+    if (path.startsWith(projectDir)) {
+      path = projectDir.relativize(path);
+    }
+    var key = path.toString().replace(File.separatorChar, '/').getBytes(StandardCharsets.UTF_8);
+    return new File(contributionsDir, UUID.nameUUIDFromBytes(key) + ".bin");
+  }
+
+  private static void addCoordinates(
+      DependencyGroups groups, Map<String, Set<DependencyCoordinates>> coordinates) {
+    groups
         .getDependencies()
         .forEach(
-            (groupName, dependencies) -> {
-              List<List<DependencyInfo>> inconsistentGroups =
-                  dependencies.stream()
-                      .collect(Collectors.groupingBy(DependencyInfo::idWithoutVersion))
-                      .values()
-                      .stream()
-                      .filter(list -> list.size() > 1)
-                      .collect(Collectors.toList());
-
-              if (!inconsistentGroups.isEmpty()) {
-                StringBuilder buf = new StringBuilder();
-                buf.append(
-                    fmt(
-                        "Multiple versions of the same dependency found in group '%s':\n\n",
-                        groupName));
-
-                for (int index = 0; index < inconsistentGroups.size(); index++) {
-                  List<DependencyInfo> list = inconsistentGroups.get(index);
-                  String artifactCoords = list.get(0).idWithoutVersion();
-
-                  buf.append(fmt("  %s) %s%n", index + 1, artifactCoords));
-                  for (var dep : list) {
-                    buf.append(
-                        fmt(
-                            "       - version %s used by:%n%s",
-                            dep.getVersion(),
-                            dep.sources.stream()
-                                .map(v -> "           " + v)
-                                .collect(Collectors.joining("\n"))));
-                    buf.append("\n");
-                  }
-
-                  buf.append(fmt("     more insight into these dependencies:%n"));
-
-                  for (var dep : list) {
-                    dep.sources.forEach(
-                        v -> {
-                          buf.append(
-                              fmt(
-                                  "       gradlew %s --dependency \"%s\" --configuration \"%s\"%n",
-                                  v.projectTask("dependencyInsight"),
-                                  artifactCoords,
-                                  v.configuration()));
-                        });
-                  }
-                  buf.append("\n");
-                }
-
-                throw new GradleException(buf.toString());
+            (groupName, deps) -> {
+              var target = coordinates.computeIfAbsent(groupName, k -> new HashSet<>());
+              for (var dep : deps) {
+                target.add(dep.coordinates);
               }
             });
   }
+
+  /**
+   * Reads resolved groups from a file or takes them from the in-memory registry, if available. The
+   * returned object may be shared and must not be modified; merge it into another object instead.
+   */
+  private DependencyGroups readResolvedGroups(File file) throws IOException {
+    if (getResolvedGroupsRegistry().isPresent()) {
+      var registered = getResolvedGroupsRegistry().get().lookup(file);
+      if (registered != null) {
+        getLogger().debug("Using in-memory resolved groups for: {}", file);
+        return registered;
+      }
+    }
+    return DependencyGroups.readBinaryFrom(file);
+  }
+
+  interface GroupsReader {
+    DependencyGroups read(File file) throws IOException;
+  }
+
+  /**
+   * Reads and merges a range of files, splitting it in halves recursively. Merging always appends
+   * the right half to the left half so the result is identical to a sequential, in-order merge.
+   * Ranges of up to {@code leafSize} files are merged sequentially into a new object, so groups
+   * returned by the reader are never modified.
+   */
+  private static final class MergeTask extends RecursiveTask<DependencyGroups> {
+    private final GroupsReader reader;
+    private final List<File> files;
+    private final int from;
+    private final int to;
+    private final int leafSize;
+
+    MergeTask(GroupsReader reader, List<File> files, int from, int to, int leafSize) {
+      this.reader = reader;
+      this.files = files;
+      this.from = from;
+      this.to = to;
+      this.leafSize = leafSize;
+    }
+
+    @Override
+    protected DependencyGroups compute() {
+      if (to - from <= leafSize) {
+        var merged = new DependencyGroups();
+        try {
+          for (int i = from; i < to; i++) {
+            merged.merge(reader.read(files.get(i)));
+          }
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+        return merged;
+      }
+
+      int mid = (from + to) >>> 1;
+      var left = new MergeTask(reader, files, from, mid, leafSize);
+      left.fork();
+      DependencyGroups right = new MergeTask(reader, files, mid, to, leafSize).compute();
+      DependencyGroups merged = left.join();
+      merged.merge(right);
+      return merged;
+    }
+  }
+
+  /** Applies all validation rules to the groups and fails if any problems are found. */
+  protected void runValidationChecks(DependencyGroups mergedGroups) {
+    long start = System.nanoTime();
+    var diagnostics =
+        DependencyValidator.defaultRules()
+            .validate(mergedGroups, getMergeParallelism().getOrElse(1));
+    recordPhase(PhaseMetrics.VALIDATE, start, mergedGroups.size());
+
+    if (!diagnostics.isEmpty()) {
+      throw new GradleException(
+          diagnostics.stream()
+              .map(ValidationRule.Diagnostic::message)
+              .collect(Collectors.joining("\n")));
+    }
+  }
 }
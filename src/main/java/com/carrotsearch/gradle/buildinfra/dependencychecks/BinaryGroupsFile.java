@@ -0,0 +1,148 @@
+package com.carrotsearch.gradle.buildinfra.dependencychecks;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.gradle.api.GradleException;
+
+/**
+ * A compact, versioned binary format for internal resolved configuration group files exchanged
+ * between projects' {@link ResolveConfigurationGroups} tasks and the root project's lock file
+ * tasks.
+ *
+ * <p>Layout: a magic number and format version, a string table (groups, modules, versions,
+ * configuration names, project paths, group names) and then configuration groups, with all strings
+ * encoded as variable-length indexes into the string table.
+ */
+final class BinaryGroupsFile {
+  private static final int MAGIC = 0x44435247; // "DCRG"
+  private static final int VERSION = 1;
+
+  private BinaryGroupsFile() {}
+
+  static void write(DependencyGroups groups, File file) throws IOException {
+    Map<String, Integer> strings = new HashMap<>();
+    List<String> table = new ArrayList<>();
+    groups
+        .getDependencies()
+        .forEach(
+            (groupName, deps) -> {
+              intern(groupName, strings, table);
+              for (var dep : deps) {
+                intern(dep.getGroup(), strings, table);
+                intern(dep.getModule(), strings, table);
+                intern(dep.getVersion(), strings, table);
+                for (var source : dep.sources) {
+                  intern(source.configuration(), strings, table);
+                  intern(source.projectPath(), strings, table);
+                }
+              }
+            });
+
+    try (var out =
+        new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file.toPath())))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+
+      writeVInt(out, table.size());
+      for (var s : table) {
+        out.writeUTF(s);
+      }
+
+      var dependencies = groups.getDependencies();
+      writeVInt(out, dependencies.size());
+      for (var e : dependencies.entrySet()) {
+        writeVInt(out, strings.get(e.getKey()));
+        writeVInt(out, e.getValue().size());
+        for (var dep : e.getValue()) {
+          writeVInt(out, strings.get(dep.getGroup()));
+          writeVInt(out, strings.get(dep.getModule()));
+          writeVInt(out, strings.get(dep.getVersion()));
+          writeVInt(out, dep.sources.size());
+          for (var source : dep.sources) {
+            writeVInt(out, strings.get(source.configuration()));
+            writeVInt(out, strings.get(source.projectPath()));
+          }
+        }
+      }
+    }
+  }
+
+  static DependencyGroups read(File file) throws IOException {
+    try (var in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+      if (in.readInt() != MAGIC) {
+        throw new GradleException("Not a resolved configuration groups file: " + file);
+      }
+      int version = in.readInt();
+      if (version != VERSION) {
+        throw new GradleException(
+            CheckLocks.fmt(
+                "Unsupported resolved configuration groups file version %d (expected %d): %s",
+                version, VERSION, file));
+      }
+
+      String[] table = new String[readVInt(in)];
+      for (int i = 0; i < table.length; i++) {
+        table[i] = in.readUTF();
+      }
+
+      var groups = new DependencyGroups();
+      for (int groupCount = readVInt(in); groupCount > 0; groupCount--) {
+        String groupName = table[readVInt(in)];
+        for (int depCount = readVInt(in); depCount > 0; depCount--) {
+          String group = table[readVInt(in)];
+          String module = table[readVInt(in)];
+          String depVersion = table[readVInt(in)];
+          int sourceCount = readVInt(in);
+          List<DependencySource> sources = new ArrayList<>(sourceCount);
+          for (int i = 0; i < sourceCount; i++) {
+            sources.add(new DependencySource(table[readVInt(in)], table[readVInt(in)]));
+          }
+          groups.addOrMerge(groupName, new DependencyInfo(group, module, depVersion, sources));
+        }
+      }
+      return groups;
+    } catch (EOFException | ArrayIndexOutOfBoundsException e) {
+      throw new GradleException("Corrupted resolved configuration groups file: " + file, e);
+    }
+  }
+
+  private static void intern(String value, Map<String, Integer> strings, List<String> table) {
+    strings.computeIfAbsent(
+        value,
+        key -> {
+          table.add(key);
+          return table.size() - 1;
+        });
+  }
+
+  private static void writeVInt(DataOutputStream out, int value) throws IOException {
+    while ((value & ~0x7f) != 0) {
+      out.writeByte((value & 0x7f) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte(value);
+  }
+
+  private static int readVInt(DataInputStream in) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      int b = in.readUnsignedByte();
+      value |= (b & 0x7f) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new GradleException("Malformed variable-length integer.");
+  }
+}
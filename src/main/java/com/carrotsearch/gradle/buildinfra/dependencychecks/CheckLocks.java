@@ -1,27 +1,91 @@
 package com.carrotsearch.gradle.buildinfra.dependencychecks;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import javax.inject.Inject;
 import org.gradle.api.GradleException;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFile;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.LocalState;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
 import org.gradle.api.tasks.TaskAction;
+import org.gradle.work.InputChanges;
 
-/** Compare aggregated dependencies against a lock file. */
+/**
+ * Compare aggregated dependencies against a lock file. The task only reads the lock file and
+ * resolved groups, so its outcome (a success marker) can be taken from the build cache when neither
+ * changed.
+ */
+@CacheableTask
 abstract class CheckLocks extends AbstractLockFileTask {
   public static final String TASK_NAME = "checkLocks";
 
   @Inject
   public CheckLocks() {}
 
+  /** An optional cache of parsed and validated lock files. */
+  @Internal
+  public abstract Property<LockFileCache> getLockFileCache();
+
+  /**
+   * The lock file, tracked as a (non-incremental) input so that any change to it results in a full
+   * check. A missing lock file is reported by the task itself.
+   */
+  @InputFiles
+  @PathSensitive(PathSensitivity.NONE)
+  public Provider<RegularFile> getLockFileInput() {
+    return lockFile;
+  }
+
+  /** An (empty) file created when the check passes. */
+  @OutputFile
+  public abstract RegularFileProperty getSuccessMarker();
+
+  /**
+   * A directory with the persisted state of incremental checks: merged groups and contributions of
+   * each input file. It is not cached; incremental checks start from scratch without it.
+   */
+  @LocalState
+  public abstract DirectoryProperty getStateDirectory();
+
   @TaskAction
-  public void action() throws IOException {
-    DependencyGroups current = getMergedDependencyGroups();
-    runValidationChecks(current);
+  public void action(InputChanges inputChanges) throws IOException {
+    File stateDir = getStateDirectory().get().getAsFile();
+    Path passedMarker = getSuccessMarker().get().getAsFile().toPath();
+    boolean previouslyPassed = inputChanges.isIncremental() && Files.exists(passedMarker);
+    Files.deleteIfExists(passedMarker);
+    Files.createDirectories(passedMarker.getParent());
+
+    var merge = getMergedDependencyGroups(inputChanges, stateDir);
+
+    // If the previous check passed, only entries affected by changed inputs are checked again.
+    var affected = previouslyPassed && !merge.isFull() ? merge.affected() : null;
+    if (affected != null) {
+      getLogger().info("Checking dependencies affected by changed inputs only.");
+    }
+
+    DependencyGroups current = merge.groups();
+    runValidationChecks(affected == null ? current : current.selectModules(affected));
 
     var lockFileRef = lockFile.get().getAsFile();
     if (!lockFileRef.isFile()) {
@@ -32,67 +96,43 @@ abstract class CheckLocks extends AbstractLockFileTask {
               lockFileRef.getAbsolutePath(),
               WriteLockFile.TASK_NAME));
     }
-    DependencyGroups fromLockFile = DependencyGroups.readFrom(lockFileRef);
-    runValidationChecks(fromLockFile);
 
-    // Compare actual and expected.
-    DependencyGroups combined = new DependencyGroups();
-    combined.merge(current);
-    combined.merge(fromLockFile);
+    DependencyGroups fromLockFile;
+    Map<String, String> lockFileDigests;
+    if (getLockFileCache().isPresent()) {
+      var validated =
+          getLockFileCache()
+              .get()
+              .getValidated(lockFileRef, this::readLockFile, this::runValidationChecks);
+      fromLockFile = validated.groups();
+      lockFileDigests = validated.groupDigests();
+    } else {
+      fromLockFile = readLockFile(lockFileRef);
+      runValidationChecks(fromLockFile);
+      lockFileDigests = fromLockFile.groupDigests();
+    }
 
-    TreeMap<String, List<String>> groupErrors = new TreeMap<>();
-    combined
-        .getDependencies()
-        .forEach(
-            (groupName, deps) -> {
-              List<String> errors = new ArrayList<>();
-
-              deps.forEach(
-                  dep -> {
-                    DependencyInfo inLockFile = fromLockFile.getIfExists(groupName, dep);
-                    DependencyInfo inCurrent = current.getIfExists(groupName, dep);
-
-                    if (inLockFile == null) {
-                      errors.add(fmt("  - %s (new dependency)", dep.id()));
-                    } else if (inCurrent == null) {
-                      errors.add(fmt("  - %s (only in lockfile, no longer used)", dep.id()));
-                    } else if (!Objects.equals(inLockFile.getVersion(), inCurrent.getVersion())) {
-                      errors.add(
-                          fmt(
-                              "  - %s (version mismatch, lockfile: %s, current: %s)",
-                              dep.idWithoutVersion(),
-                              inLockFile.getVersion(),
-                              inCurrent.getVersion()));
-                    } else if (!Objects.equals(inLockFile.sources, inCurrent.sources)) {
-                      var inLockFileBecause = new ArrayList<>(inLockFile.sources);
-                      var inCurrentBecause = new ArrayList<>(inCurrent.sources);
-                      var shared = new ArrayList<>(inLockFileBecause);
-                      shared.retainAll(inCurrentBecause);
-                      inLockFileBecause.removeAll(shared);
-                      inCurrentBecause.removeAll(shared);
-
-                      errors.add(fmt("  - %s (dependency sources different)%n", dep.id()));
-                      if (!inLockFileBecause.isEmpty()) {
-                        errors.add(
-                            inLockFileBecause.stream()
-                                    .map(it -> "        " + it + " (removed source)")
-                                    .collect(Collectors.joining("\n"))
-                                + "\n");
-                      }
-                      if (!inCurrentBecause.isEmpty()) {
-                        errors.add(
-                            inCurrentBecause.stream()
-                                    .map(it -> "        " + it + " (new source)")
-                                    .collect(Collectors.joining("\n"))
-                                + "\n");
-                      }
-                    }
-                  });
-
-              if (!errors.isEmpty()) {
-                groupErrors.put(groupName, errors);
-              }
-            });
+    // Fast path: if content digests are identical, there is nothing to compare. Digests of the
+    // lock file are always computed from its parsed entries.
+    long start = System.nanoTime();
+    var currentDigests = current.groupDigests();
+    recordPhase(PhaseMetrics.DIGEST, start, current.size());
+    if (currentDigests.equals(lockFileDigests)) {
+      getLogger().info("Lock file content digest matches current dependencies: {}", lockFileRef);
+      Files.createFile(passedMarker);
+      return;
+    }
+
+    // Compare actual and expected, skipping groups with identical content digests.
+    Predicate<String> changedGroups =
+        groupName ->
+            !Objects.equals(currentDigests.get(groupName), lockFileDigests.get(groupName));
+    start = System.nanoTime();
+    TreeMap<String, List<String>> groupErrors =
+        affected == null
+            ? compare(current, fromLockFile, changedGroups)
+            : compare(current.select(affected), fromLockFile.select(affected), changedGroups);
+    recordPhase(PhaseMetrics.COMPARE, start, current.size());
 
     if (!groupErrors.isEmpty()) {
       StringBuilder buf = new StringBuilder();
@@ -117,6 +157,108 @@ abstract class CheckLocks extends AbstractLockFileTask {
 
       throw new GradleException(buf.toString());
     }
+
+    Files.createFile(passedMarker);
+  }
+
+  private DependencyGroups readLockFile(File lockFile) throws IOException {
+    long start = System.nanoTime();
+    var groups = DependencyGroups.readFrom(lockFile);
+    recordPhase(PhaseMetrics.READ_LOCK_FILE, start, groups.size());
+    return groups;
+  }
+
+  /**
+   * Compares current dependencies against those from the lock file.
+   *
+   * @return Group name mapped to a list of differences (errors) found in that group.
+   */
+  static TreeMap<String, List<String>> compare(
+      DependencyGroups current, DependencyGroups fromLockFile) {
+    return compare(current, fromLockFile, groupName -> true);
+  }
+
+  /**
+   * Compares current dependencies against those from the lock file, in groups accepted by the
+   * provided filter only.
+   *
+   * @return Group name mapped to a list of differences (errors) found in that group.
+   */
+  static TreeMap<String, List<String>> compare(
+      DependencyGroups current, DependencyGroups fromLockFile, Predicate<String> groupFilter) {
+    var groupNames = new TreeSet<>(current.getDependencies().keySet());
+    groupNames.addAll(fromLockFile.getDependencies().keySet());
+
+    TreeMap<String, List<String>> groupErrors = new TreeMap<>();
+    for (var groupName : groupNames) {
+      if (!groupFilter.test(groupName)) {
+        continue;
+      }
+
+      // Union of coordinates from both sides, in lock file order.
+      TreeSet<DependencyCoordinates> combined =
+          new TreeSet<>(DependencyCoordinates.COMPARE_BY_GROUP_MODULE_THEN_VERSION);
+      for (var side : List.of(current, fromLockFile)) {
+        for (var dep : side.getDependencies().getOrDefault(groupName, List.of())) {
+          combined.add(dep.coordinates);
+        }
+      }
+
+      List<String> errors = new ArrayList<>();
+      for (var dep : combined) {
+        DependencyInfo inLockFile = fromLockFile.getIfExists(groupName, dep);
+        DependencyInfo inCurrent = current.getIfExists(groupName, dep);
+
+        if (inLockFile == null) {
+          errors.add(fmt("  - %s (new dependency)", dep.id()));
+        } else if (inCurrent == null) {
+          errors.add(fmt("  - %s (only in lockfile, no longer used)", dep.id()));
+        } else if (!inLockFile.coordinates.equals(inCurrent.coordinates)) {
+          errors.add(
+              fmt(
+                  "  - %s (version mismatch, lockfile: %s, current: %s)",
+                  dep.idWithoutVersion(),
+                  inLockFile.getVersion(),
+                  inCurrent.getVersion()));
+        } else if (!inLockFile.sources.equals(inCurrent.sources)) {
+          var inLockFileBecause = difference(inLockFile.sources, inCurrent.sources);
+          var inCurrentBecause = difference(inCurrent.sources, inLockFile.sources);
+
+          errors.add(fmt("  - %s (dependency sources different)%n", dep.id()));
+          if (!inLockFileBecause.isEmpty()) {
+            errors.add(
+                inLockFileBecause.stream()
+                        .map(it -> "        " + it + " (removed source)")
+                        .collect(Collectors.joining("\n"))
+                    + "\n");
+          }
+          if (!inCurrentBecause.isEmpty()) {
+            errors.add(
+                inCurrentBecause.stream()
+                        .map(it -> "        " + it + " (new source)")
+                        .collect(Collectors.joining("\n"))
+                    + "\n");
+          }
+        }
+      }
+
+      if (!errors.isEmpty()) {
+        groupErrors.put(groupName, errors);
+      }
+    }
+    return groupErrors;
+  }
+
+  /** Elements of {@code a} that are not in {@code b}, in the iteration order of {@code a}. */
+  private static List<DependencySource> difference(
+      Set<DependencySource> a, Set<DependencySource> b) {
+    var result = new ArrayList<DependencySource>();
+    for (var source : a) {
+      if (!b.contains(source)) {
+        result.add(source);
+      }
+    }
+    return result;
   }
 
   public static String fmt(String fmt, Object... args) {
@@ -0,0 +1,94 @@
+package com.carrotsearch.gradle.buildinfra.dependencychecks;
+
+import static com.carrotsearch.gradle.buildinfra.dependencychecks.CheckLocks.fmt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Checks that there are no group:module pairs with different versions within each configuration
+ * group (inconsistent versions).
+ */
+final class ConsistentVersionsRule implements ValidationRule {
+  @Override
+  public String name() {
+    return "consistentVersions";
+  }
+
+  @Override
+  public GroupVisitor visitGroup(String groupName) {
+    return new GroupVisitor() {
+      private final List<List<DependencyInfo>> inconsistent = new ArrayList<>();
+      private List<DependencyInfo> module = new ArrayList<>();
+
+      @Override
+      public void visit(DependencyInfo dependency) {
+        if (!module.isEmpty() && !sameModule(module.get(0), dependency)) {
+          endModule();
+        }
+        module.add(dependency);
+      }
+
+      private void endModule() {
+        if (module.size() > 1) {
+          inconsistent.add(module);
+          module = new ArrayList<>();
+        } else {
+          module.clear();
+        }
+      }
+
+      @Override
+      public List<String> finish() {
+        endModule();
+        if (inconsistent.isEmpty()) {
+          return List.of();
+        }
+        return List.of(describe(groupName, inconsistent));
+      }
+    };
+  }
+
+  private static boolean sameModule(DependencyInfo a, DependencyInfo b) {
+    return a.getGroup().equals(b.getGroup()) && a.getModule().equals(b.getModule());
+  }
+
+  private static String describe(String groupName, List<List<DependencyInfo>> inconsistent) {
+    StringBuilder buf = new StringBuilder();
+    buf.append(fmt("Multiple versions of the same dependency found in group '%s':\n\n", groupName));
+
+    for (int index = 0; index < inconsistent.size(); index++) {
+      List<DependencyInfo> list = inconsistent.get(index);
+      String artifactCoords = list.get(0).idWithoutVersion();
+
+      buf.append(fmt("  %s) %s%n", index + 1, artifactCoords));
+      for (var dep : list) {
+        buf.append(
+            fmt(
+                "       - version %s used by:%n%s",
+                dep.getVersion(),
+                dep.sources.stream()
+                    .map(v -> "           " + v)
+                    .collect(Collectors.joining("\n"))));
+        buf.append("\n");
+      }
+
+      buf.append(fmt("     more insight into these dependencies:%n"));
+
+      for (var dep : list) {
+        dep.sources.forEach(
+            v -> {
+              buf.append(
+                  fmt(
+                      "       gradlew %s --dependency \"%s\" --configuration \"%s\"%n",
+                      v.projectTask("dependencyInsight"),
+                      artifactCoords,
+                      v.configuration()));
+            });
+      }
+      buf.append("\n");
+    }
+    return buf.toString();
+  }
+}
@@ -1,19 +1,31 @@
 package com.carrotsearch.gradle.buildinfra.dependencychecks;
 
 import groovy.lang.Closure;
+import java.io.File;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Locale;
-import java.util.Objects;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
+import javax.inject.Inject;
 import org.gradle.api.GradleException;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
+import org.gradle.api.artifacts.ArtifactCollection;
 import org.gradle.api.artifacts.Configuration;
 import org.gradle.api.artifacts.ModuleIdentifier;
-import org.gradle.api.artifacts.ModuleVersionIdentifier;
 import org.gradle.api.artifacts.ModuleVersionSelector;
+import org.gradle.api.artifacts.result.ResolvedArtifactResult;
 import org.gradle.api.artifacts.result.ResolvedComponentResult;
+import org.gradle.api.artifacts.result.ResolvedDependencyResult;
+import org.gradle.api.artifacts.type.ArtifactTypeDefinition;
+import org.gradle.api.attributes.Attribute;
+import org.gradle.api.attributes.Category;
+import org.gradle.api.file.Directory;
+import org.gradle.api.provider.Provider;
+import org.gradle.build.event.BuildEventsListenerRegistry;
 import org.gradle.internal.DefaultTaskExecutionRequest;
 
 /**
@@ -24,8 +36,35 @@ import org.gradle.internal.DefaultTaskExecutionRequest;
  *
  * <p>- the "lock file" (versions.lock) is for tracking unintended changes (it does not lock
  * versions but will fail if the actual dependencies are different from the ones in the lockfile).
+ *
+ * <p>The plugin must be applied to the root project, which hosts lock file tasks (the build fails
+ * otherwise). Other projects publish their resolved configuration groups as a variant consumed by
+ * the root project, so no project accesses another project's state (parallel configuration,
+ * isolated projects).
  */
 public final class DependencyChecksPlugin implements Plugin<Project> {
+  /** A consumable configuration of each project, publishing its resolved configuration groups. */
+  public static final String RESOLVED_GROUPS_ELEMENTS = "dependencyChecksResolvedGroupsElements";
+
+  /** A resolvable configuration of the root project, aggregating resolved configuration groups. */
+  public static final String RESOLVED_GROUPS = "dependencyChecksResolvedGroups";
+
+  /** A dedicated attribute of the resolved configuration groups variant. */
+  public static final Attribute<String> RESOLVED_GROUPS_ATTRIBUTE =
+      Attribute.of("com.carrotsearch.gradle.dependencychecks.resolvedGroups", String.class);
+
+  private static final String RESOLVED_GROUPS_FORMAT = "binary";
+
+  /** The artifact type of resolved configuration groups files. */
+  private static final String RESOLVED_GROUPS_ARTIFACT_TYPE = "dependency-checks-resolved-groups";
+
+  private final BuildEventsListenerRegistry buildEvents;
+
+  @Inject
+  public DependencyChecksPlugin(BuildEventsListenerRegistry buildEvents) {
+    this.buildEvents = buildEvents;
+  }
+
   @Override
   public void apply(Project project) {
     // Apply the extension.
@@ -36,107 +75,335 @@ public final class DependencyChecksPlugin implements Plugin<Project> {
                 DependencyVersionChecksExtension.EXTENSION_NAME,
                 DependencyVersionChecksExtension.class);
 
-    // Add getResolvedVersion.
+    // Add getResolvedVersion and getResolvedVersions (for batch lookups).
+    var resolvedVersions = new ResolvedVersionLookup();
+    var extraProperties = project.getExtensions().getExtraProperties();
+    extraProperties.set(
+        "getResolvedVersion",
+        new Closure<String>(project) {
+          public String doCall(String groupModulePair, Configuration configuration) {
+            String[] splits = ResolvedVersionLookup.groupAndModule(groupModulePair);
+            return doCall(splits[0], splits[1], configuration);
+          }
+
+          public String doCall(String group, String module, Configuration configuration) {
+            return resolvedVersions.version(configuration, group, module);
+          }
+
+          public String doCall(ModuleVersionSelector moduleSelector, Configuration configuration) {
+            return doCall(moduleSelector.getModule(), configuration);
+          }
+
+          public String doCall(ModuleIdentifier moduleSelector, Configuration configuration) {
+            return doCall(moduleSelector.getGroup(), moduleSelector.getName(), configuration);
+          }
+        });
+    extraProperties.set(
+        "getResolvedVersions",
+        new Closure<Object>(project) {
+          /**
+           * Resolves versions of many modules ({@code group:module} strings, {@link
+           * ModuleIdentifier}s or {@link ModuleVersionSelector}s) at once.
+           *
+           * @return An ordered map of {@code group:module} to resolved version.
+           */
+          public Map<String, String> doCall(Collection<?> modules, Configuration configuration) {
+            return resolvedVersions.versions(configuration, modules);
+          }
+
+          /**
+           * Lazy variant: configuration resolution is deferred until the provider's value is
+           * queried.
+           */
+          public Provider<Map<String, String>> doCall(
+              Collection<?> modules, Provider<? extends Configuration> configuration) {
+            var copy = List.copyOf(modules);
+            return configuration.map(conf -> doCall(copy, conf));
+          }
+        });
+
+    // Register a shared registry for in-memory handoff of resolved groups.
+    extension.getInMemoryHandoff().convention(false);
+    var resolvedGroupsRegistry =
+        project
+            .getGradle()
+            .getSharedServices()
+            .registerIfAbsent(
+                ResolvedGroupsRegistry.SERVICE_NAME, ResolvedGroupsRegistry.class, spec -> {});
+
+    // Reports go to the root project's build directory. Projects are configured top-down, so
+    // the root project registers shared services first and other projects need not know it.
+    Provider<Directory> reportsDir =
+        project.getRootProject() == project
+            ? project.getLayout().getBuildDirectory().dir("reports/dependency-checks")
+            : null;
+
+    // Register a shared service collecting phase metrics.
+    extension.getPhaseMetrics().convention(false);
+    var phaseMetrics =
+        project
+            .getGradle()
+            .getSharedServices()
+            .registerIfAbsent(
+                PhaseMetrics.SERVICE_NAME,
+                PhaseMetrics.class,
+                spec -> {
+                  if (reportsDir != null) {
+                    spec.getParameters()
+                        .getReportFile()
+                        .set(reportsDir.map(dir -> dir.file("metrics.json")));
+                  }
+                });
+
+    // Register a shared service collecting fingerprints of resolved graphs.
+    extension.getRedundancyReport().convention(false);
+    var resolvedGraphFingerprints =
+        project
+            .getGradle()
+            .getSharedServices()
+            .registerIfAbsent(
+                ResolvedGraphFingerprints.SERVICE_NAME,
+                ResolvedGraphFingerprints.class,
+                spec -> {
+                  if (reportsDir != null) {
+                    spec.getParameters()
+                        .getReportFile()
+                        .set(reportsDir.map(dir -> dir.file("identical-graphs.json")));
+                  }
+                });
+
+    // Register internal resolution tasks,
+    var resolveTask =
+        project
+            .getTasks()
+            .register(ResolveConfigurationGroups.TASK_NAME, ResolveConfigurationGroups.class);
+    resolveTask.configure(
+        (task) -> {
+          // link up internal tasks with the project's extension configuration. Everything
+          // the task needs is captured here, at configuration time.
+          var configurationGroups =
+              project.provider(
+                  () -> {
+                    var groups = new TreeMap<String, List<String>>();
+                    extension
+                        .getConfigurationGroups()
+                        .forEach(
+                            group ->
+                                groups.put(
+                                    group.getName(),
+                                    group.getIncludedConfigurations().get().stream()
+                                        .sorted()
+                                        .toList()));
+                    return groups;
+                  });
+
+          task.getProjectPath().set(project.getPath());
+          task.getConfigurationGroups().set(configurationGroups);
+          if (extension.getInMemoryHandoff().get()) {
+            task.getResolvedGroupsRegistry().set(resolvedGroupsRegistry);
+            task.usesService(resolvedGroupsRegistry);
+          }
+          if (extension.getPhaseMetrics().get()) {
+            task.getPhaseMetrics().set(phaseMetrics);
+            task.usesService(phaseMetrics);
+          }
+          if (extension.getRedundancyReport().get()) {
+            task.getResolvedGraphFingerprints().set(resolvedGraphFingerprints);
+            task.usesService(resolvedGraphFingerprints);
+            // Tracks resolution tasks that do not execute (and may not record fingerprints).
+            buildEvents.onTaskCompletion(resolvedGraphFingerprints);
+          }
+          // Root components are wired as providers, so configurations are only resolved when
+          // the roots are queried.
+          task.getConfigurationRoots()
+              .set(
+                  configurationGroups.flatMap(
+                      groups -> {
+                        Set<String> included =
+                            groups.values().stream()
+                                .flatMap(List::stream)
+                                .collect(Collectors.toSet());
+
+                        var roots =
+                            project
+                                .getObjects()
+                                .mapProperty(String.class, ResolvedComponentResult.class);
+                        project
+                            .getConfigurations()
+                            .matching(conf -> included.contains(conf.getName()))
+                            .forEach(
+                                conf ->
+                                    roots.put(
+                                        conf.getName(),
+                                        conf.getIncoming()
+                                            .getResolutionResult()
+                                            .getRootComponent()));
+                        return roots;
+                      }));
+        });
+
+    // Publish the resolved groups file as an outgoing variant, so that the root project
+    // can consume it without reaching into this project's tasks.
+    var resolvedGroupsFile = resolveTask.flatMap(ResolveConfigurationGroups::getOutput);
+    var category = project.getObjects().named(Category.class, "dependency-checks");
     project
-        .getExtensions()
-        .getExtraProperties()
-        .set(
-            "getResolvedVersion",
-            new Closure<String>(project) {
-              public String doCall(String groupModulePair, Configuration configuration) {
-                String[] splits = groupModulePair.split(":");
-                if (splits.length != 2) {
-                  throw new GradleException(
-                      String.format(
-                          Locale.ROOT, "Expected 'group:name' notation: %s", groupModulePair));
-                }
-                return doCall(splits[0], splits[1], configuration);
-              }
-
-              public String doCall(String group, String module, Configuration configuration) {
-                List<ModuleVersionIdentifier> moduleVersionList =
-                    configuration.getIncoming().getResolutionResult().getAllComponents().stream()
-                        .map(ResolvedComponentResult::getModuleVersion)
-                        .filter(
-                            item ->
-                                Objects.equals(item.getGroup(), group)
-                                    && Objects.equals(item.getName(), module))
-                        .toList();
-
-                switch (moduleVersionList.size()) {
-                  case 0:
-                    throw new GradleException(
-                        String.format(
-                            Locale.ROOT,
-                            "Configuration %s does not contain any reference to %s:%s",
-                            configuration.getName(),
-                            group,
-                            module));
-
-                  case 1:
-                    return moduleVersionList.get(0).getVersion();
-
-                  default:
-                    throw new GradleException(
-                        String.format(
-                            Locale.ROOT,
-                            "Configuration %s contains multiple modules matching %s:%s",
-                            configuration.getName(),
-                            group,
-                            module));
-                }
-              }
-
-              public String doCall(
-                  ModuleVersionSelector moduleSelector, Configuration configuration) {
-                return doCall(moduleSelector.getModule(), configuration);
-              }
-
-              public String doCall(ModuleIdentifier moduleSelector, Configuration configuration) {
-                return doCall(moduleSelector.getGroup(), moduleSelector.getName(), configuration);
-              }
+        .getConfigurations()
+        .register(
+            RESOLVED_GROUPS_ELEMENTS,
+            conf -> {
+              conf.setCanBeConsumed(true);
+              conf.setCanBeResolved(false);
+              conf.setDescription("Resolved configuration groups of this project.");
+              conf.attributes(
+                  attrs -> {
+                    attrs.attribute(Category.CATEGORY_ATTRIBUTE, category);
+                    attrs.attribute(RESOLVED_GROUPS_ATTRIBUTE, RESOLVED_GROUPS_FORMAT);
+                  });
+              conf.getOutgoing()
+                  .artifact(
+                      resolvedGroupsFile,
+                      artifact -> artifact.setType(RESOLVED_GROUPS_ARTIFACT_TYPE));
             });
 
-    // Register internal resolution tasks,
+    // Register a debugging task to dump the internal resolution file as JSON.
     project
         .getTasks()
-        .register(ResolveConfigurationGroups.TASK_NAME, ResolveConfigurationGroups.class)
+        .register(DumpResolvedGroups.TASK_NAME, DumpResolvedGroups.class)
         .configure(
             (task) -> {
-              // link up internal tasks with the project's extension configuration.
-              task.getConfigurationGroups()
-                  .addAllLater(project.provider(extension::getConfigurationGroups));
+              task.setDescription("Dumps resolved configuration groups of this project as JSON.");
+              task.setGroup("help");
+              task.getInput().set(resolvedGroupsFile);
+              task.getOutput()
+                  .set(
+                      project
+                          .getLayout()
+                          .getBuildDirectory()
+                          .file("tmp/" + task.getName() + "/resolved-configuration-groups.json"));
             });
 
     if (project.getRootProject() != project) {
-      project.getRootProject().getPlugins().apply(DependencyChecksPlugin.class);
-    } else {
-      var resolutionTasks =
-          project.getAllprojects().stream()
-              .map(
-                  prj ->
-                      prj.getTasks()
-                          .matching(
-                              task -> task.getName().equals(ResolveConfigurationGroups.TASK_NAME)))
-              .collect(Collectors.toList());
+      // Lock file tasks live in the root project, which is configured first and registers the
+      // lock file cache. Without it, this project's groups would be silently ignored.
+      project.afterEvaluate(
+          p -> {
+            var registrations = p.getGradle().getSharedServices().getRegistrations();
+            if (registrations.findByName(LockFileCache.SERVICE_NAME) == null) {
+              throw new GradleException(
+                  "The dependency checks plugin is applied to "
+                      + p.getPath()
+                      + " but not to the root project, which hosts lock file tasks. Apply it"
+                      + " to the root project too.");
+            }
+          });
+    }
+
+    if (project.getRootProject() == project) {
+      // Aggregate resolved groups of all other projects through dependency resolution. Projects
+      // that do not apply this plugin have no matching variant and are skipped.
+      var aggregation =
+          project
+              .getConfigurations()
+              .register(
+                  RESOLVED_GROUPS,
+                  conf -> {
+                    conf.setCanBeConsumed(false);
+                    conf.setCanBeResolved(true);
+                    conf.setDescription("Resolved configuration groups of all projects.");
+                    conf.attributes(
+                        attrs -> {
+                          attrs.attribute(Category.CATEGORY_ATTRIBUTE, category);
+                          attrs.attribute(RESOLVED_GROUPS_ATTRIBUTE, RESOLVED_GROUPS_FORMAT);
+                        });
+                  });
+      for (var subproject : project.getSubprojects()) {
+        project
+            .getDependencies()
+            .add(
+                RESOLVED_GROUPS,
+                project.getDependencies().project(Map.of("path", subproject.getPath())));
+      }
+
+      // Projects without a matching variant (or falling back to legacy configurations) are
+      // skipped leniently, and only artifacts of the dedicated type are selected. Projects that
+      // publish the resolved groups variant must still contribute their files.
+      var rootComponent =
+          aggregation.flatMap(conf -> conf.getIncoming().getResolutionResult().getRootComponent());
+      var resolutionTasks = project.files(resolvedGroupsFile);
+      resolutionTasks.from(
+          aggregation.flatMap(
+              conf -> {
+                var artifacts =
+                    conf.getIncoming()
+                        .artifactView(
+                            view -> {
+                              view.lenient(true);
+                              view.attributes(
+                                  attrs ->
+                                      attrs.attribute(
+                                          ArtifactTypeDefinition.ARTIFACT_TYPE_ATTRIBUTE,
+                                          RESOLVED_GROUPS_ARTIFACT_TYPE));
+                            })
+                        .getArtifacts();
+                return artifacts
+                    .getResolvedArtifacts()
+                    .zip(
+                        rootComponent,
+                        (resolved, root) -> resolvedGroupsFiles(artifacts, resolved, root));
+              }));
 
       // register lock file - related tasks and link them up to the default resolution tasks.
       var depCheckExt = project.getExtensions().getByType(DependencyVersionChecksExtension.class);
+      depCheckExt.getMergeParallelism().convention(1);
       var writeLocksTask =
           project.getTasks().register(WriteLockFile.TASK_NAME, WriteLockFile.class);
       writeLocksTask.configure(
           (task) -> {
             task.getLockFileComment().convention(depCheckExt.getLockFileComment());
+            task.getMergeParallelism().convention(depCheckExt.getMergeParallelism());
+            if (depCheckExt.getInMemoryHandoff().get()) {
+              task.getResolvedGroupsRegistry().set(resolvedGroupsRegistry);
+              task.usesService(resolvedGroupsRegistry);
+            }
+            if (depCheckExt.getPhaseMetrics().get()) {
+              task.getPhaseMetrics().set(phaseMetrics);
+              task.usesService(phaseMetrics);
+            }
             task.getResolvedConfigurationGroups().from(resolutionTasks);
             task.lockFile.value(project.getLayout().getProjectDirectory().file("versions.lock"));
           });
 
+      var lockFileCache =
+          project
+              .getGradle()
+              .getSharedServices()
+              .registerIfAbsent(
+                  LockFileCache.SERVICE_NAME,
+                  LockFileCache.class,
+                  spec -> spec.getParameters().getMaxEntries().set(8));
+
       var checkLocksTask = project.getTasks().register(CheckLocks.TASK_NAME, CheckLocks.class);
       checkLocksTask.configure(
           (task) -> {
             task.mustRunAfter(writeLocksTask);
+            task.getLockFileCache().set(lockFileCache);
+            task.usesService(lockFileCache);
+            task.getMergeParallelism().convention(depCheckExt.getMergeParallelism());
+            if (depCheckExt.getInMemoryHandoff().get()) {
+              task.getResolvedGroupsRegistry().set(resolvedGroupsRegistry);
+              task.usesService(resolvedGroupsRegistry);
+            }
+            if (depCheckExt.getPhaseMetrics().get()) {
+              task.getPhaseMetrics().set(phaseMetrics);
+              task.usesService(phaseMetrics);
+            }
             task.getResolvedConfigurationGroups().from(resolutionTasks);
             task.lockFile.value(project.getLayout().getProjectDirectory().file("versions.lock"));
+            var taskDir = "tmp/" + task.getName();
+            task.getSuccessMarker()
+                .convention(project.getLayout().getBuildDirectory().file(taskDir + "/passed"));
+            task.getStateDirectory()
+                .convention(project.getLayout().getBuildDirectory().dir(taskDir + "/state"));
           });
 
       project
@@ -159,4 +426,39 @@ public final class DependencyChecksPlugin implements Plugin<Project> {
       }
     }
   }
+
+  /**
+   * @return Files of resolved groups artifacts.
+   * @throws GradleException If a project publishing the resolved groups variant did not contribute
+   *     its file (failures of the lenient artifact view are attached).
+   */
+  private static List<File> resolvedGroupsFiles(
+      ArtifactCollection artifacts,
+      Set<ResolvedArtifactResult> resolved,
+      ResolvedComponentResult root) {
+    var contributed =
+        resolved.stream()
+            .map(artifact -> artifact.getId().getComponentIdentifier())
+            .collect(Collectors.toSet());
+
+    var missing = new ArrayList<String>();
+    for (var dependency : root.getDependencies()) {
+      if (dependency instanceof ResolvedDependencyResult resolvedDependency
+          && resolvedDependency
+                  .getResolvedVariant()
+                  .getAttributes()
+                  .getAttribute(RESOLVED_GROUPS_ATTRIBUTE)
+              != null
+          && !contributed.contains(resolvedDependency.getSelected().getId())) {
+        missing.add(resolvedDependency.getSelected().getId().getDisplayName());
+      }
+    }
+
+    if (!missing.isEmpty()) {
+      var e = new GradleException("Could not resolve configuration groups of: " + missing);
+      artifacts.getFailures().forEach(e::addSuppressed);
+      throw e;
+    }
+    return resolved.stream().map(ResolvedArtifactResult::getFile).toList();
+  }
 }
@@ -0,0 +1,176 @@
+package com.carrotsearch.gradle.buildinfra.dependencychecks;
+
+import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.util.Comparator;
+import java.util.WeakHashMap;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+
+/**
+ * Canonical, immutable dependency coordinates (group, module and version). Instances are interned
+ * so that identical coordinates repeated across many projects share a single instance (and the same
+ * group, module and version strings). Interning is weak: instances (and strings) no longer
+ * referenced from anywhere else can be garbage collected, so the tables do not grow across builds
+ * in a long-lived daemon.
+ */
+final class DependencyCoordinates implements Serializable {
+  /**
+   * Orders coordinates by {@code group:module}, then by version. The order is identical to
+   * comparing concatenated {@code group:module} strings but does not allocate.
+   */
+  static final Comparator<DependencyCoordinates> COMPARE_BY_GROUP_MODULE_THEN_VERSION =
+      (a, b) -> {
+        if (a == b) {
+          return 0;
+        }
+        int cmp = compareGroupModule(a, b);
+        return cmp != 0 ? cmp : a.version.compareTo(b.version);
+      };
+
+  private static final WeakInterner<String> symbols = new WeakInterner<>();
+  private static final WeakInterner<DependencyCoordinates> instances = new WeakInterner<>();
+
+  private final String group;
+  private final String module;
+  private final String version;
+  private final int hash;
+
+  private transient String id;
+
+  private DependencyCoordinates(String group, String module, String version) {
+    this.group = group;
+    this.module = module;
+    this.version = version;
+    this.hash = (group.hashCode() * 31 + module.hashCode()) * 31 + version.hashCode();
+  }
+
+  static DependencyCoordinates of(String group, String module, String version) {
+    var probe = new DependencyCoordinates(group, module, version);
+    var existing = instances.get(probe);
+    if (existing != null) {
+      return existing;
+    }
+
+    return instances.intern(
+        new DependencyCoordinates(
+            symbols.intern(group), symbols.intern(module), symbols.intern(version)));
+  }
+
+  static DependencyCoordinates of(ModuleVersionIdentifier id) {
+    return of(id.getGroup(), id.getName(), id.getVersion());
+  }
+
+  /** Parses {@code group:module:version} coordinates. */
+  static DependencyCoordinates parse(String dependency) {
+    int first = dependency.indexOf(':');
+    int second = first < 0 ? -1 : dependency.indexOf(':', first + 1);
+    if (second < 0 || dependency.indexOf(':', second + 1) >= 0) {
+      throw new RuntimeException(
+          "Something is not right with this dependency coords: " + dependency);
+    }
+
+    return of(
+        dependency.substring(0, first),
+        dependency.substring(first + 1, second),
+        dependency.substring(second + 1));
+  }
+
+  String group() {
+    return group;
+  }
+
+  String module() {
+    return module;
+  }
+
+  String version() {
+    return version;
+  }
+
+  String idWithoutVersion() {
+    return group + ":" + module;
+  }
+
+  /** Returns {@code group:module:version}, computed once. */
+  String id() {
+    var id = this.id;
+    if (id == null) {
+      this.id = id = group + ":" + module + ":" + version;
+    }
+    return id;
+  }
+
+  /** Checks if both coordinates have the same group and module. */
+  boolean sameGroupAndModule(DependencyCoordinates other) {
+    return group.equals(other.group) && module.equals(other.module);
+  }
+
+  private static int compareGroupModule(DependencyCoordinates a, DependencyCoordinates b) {
+    int len1 = a.group.length() + 1 + a.module.length();
+    int len2 = b.group.length() + 1 + b.module.length();
+    int lim = Math.min(len1, len2);
+    for (int i = 0; i < lim; i++) {
+      char c1 = a.groupModuleCharAt(i);
+      char c2 = b.groupModuleCharAt(i);
+      if (c1 != c2) {
+        return c1 - c2;
+      }
+    }
+    return len1 - len2;
+  }
+
+  private char groupModuleCharAt(int index) {
+    int groupLength = group.length();
+    if (index < groupLength) {
+      return group.charAt(index);
+    } else if (index == groupLength) {
+      return ':';
+    } else {
+      return module.charAt(index - groupLength - 1);
+    }
+  }
+
+  private Object readResolve() {
+    return of(group, module, version);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj == this) return true;
+    if (obj == null || obj.getClass() != this.getClass()) return false;
+    var that = (DependencyCoordinates) obj;
+    return this.hash == that.hash
+        && this.group.equals(that.group)
+        && this.module.equals(that.module)
+        && this.version.equals(that.version);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    return id();
+  }
+
+  /** A thread-safe interner holding weak references to both keys and canonical values. */
+  private static final class WeakInterner<T> {
+    private final WeakHashMap<T, WeakReference<T>> canonical = new WeakHashMap<>();
+
+    synchronized T get(T value) {
+      var ref = canonical.get(value);
+      return ref != null ? ref.get() : null;
+    }
+
+    synchronized T intern(T value) {
+      var existing = get(value);
+      if (existing != null) {
+        return existing;
+      }
+      canonical.put(value, new WeakReference<>(value));
+      return value;
+    }
+  }
+}
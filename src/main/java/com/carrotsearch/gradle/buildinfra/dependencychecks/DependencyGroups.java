@@ -6,38 +6,51 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.databind.exc.MismatchedInputException;
 import com.fasterxml.jackson.databind.json.JsonMapper;
 import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.Locale;
+import java.util.Comparator;
+import java.util.HexFormat;
 import java.util.Map;
-import java.util.Set;
 import java.util.TreeMap;
-import java.util.TreeSet;
-import java.util.stream.Collectors;
-import org.gradle.api.GradleException;
 
 /** An ordered set of named groups of {@link DependencyInfo}s. */
 public class DependencyGroups implements Serializable {
-  private final HashMap<String, DependencyInfo> dependencyByGroupAndId = new HashMap<>();
-  private final TreeMap<String, TreeSet<DependencyInfo>> dependencies = new TreeMap<>();
+  /**
+   * Group name to dependencies within that group, keyed (and ordered) by their coordinates. This is
+   * both the ordered view and the lookup index.
+   */
+  private final TreeMap<String, TreeMap<DependencyCoordinates, DependencyInfo>> index =
+      new TreeMap<>();
+
+  /** A read-only view of {@link #index}, with dependency values of each group. */
+  private final TreeMap<String, Collection<DependencyInfo>> dependencies = new TreeMap<>();
 
   public static ObjectMapper objectMapper = getObjectMapper();
 
-  public Map<String, TreeSet<DependencyInfo>> getDependencies() {
-    return dependencies;
+  /** A canonical order of dependency sources, used for computing digests. */
+  private static final Comparator<DependencySource> SOURCE_ORDER =
+      Comparator.comparing(DependencySource::projectPath)
+          .thenComparing(DependencySource::configuration);
+
+  /**
+   * @return Group name mapped to dependencies in that group, ordered by {@link
+   *     DependencyInfo#COMPARE_BY_GROUP_MODULE_THEN_ID}.
+   */
+  public Map<String, Collection<DependencyInfo>> getDependencies() {
+    return Collections.unmodifiableMap(dependencies);
   }
 
-  public DependencyGroups(Map<String, ? extends Set<DependencyInfo>> groups) {
+  public DependencyGroups(Map<String, ? extends Collection<DependencyInfo>> groups) {
     mergeInternal(groups);
   }
 
@@ -52,73 +65,95 @@ public class DependencyGroups implements Serializable {
   }
 
   public void writeTo(String comment, Writer writer) throws IOException {
-    LockFile lockFile = new LockFile();
-    lockFile.comment = comment;
-
-    // Collect unique sources.
-    TreeMap<String, List<DependencySource>> keyToSource = lockFile.keyToSource;
-    LinkedHashMap<List<DependencySource>, String> sourceToKey = new LinkedHashMap<>();
-    getDependencies().values().stream()
-        .flatMap(it -> it.stream().map(it2 -> it2.sources))
-        .forEach(
-            source -> {
-              sourceToKey.computeIfAbsent(
-                  source,
-                  unused -> {
-                    String key = String.format(Locale.ROOT, "%08x", source.hashCode());
-                    // Add synthetic padding in case hash codes are not unique.
-                    while (keyToSource.containsKey(key)) {
-                      key = key + "P";
-                    }
-
-                    keyToSource.put(key, source);
-                    return key;
-                  });
-            });
-
-    LinkedHashMap<String, LinkedHashMap<String, String>> configurationGroups =
-        lockFile.configurationGroups;
-    getDependencies()
-        .forEach(
-            (name, depInfos) -> {
-              var value =
-                  depInfos.stream()
-                      .collect(
-                          Collectors.toMap(
-                              DependencyInfo::getDependency,
-                              (e -> sourceToKey.get(e.sources) + ",refs=" + e.sources.size()),
-                              ((a, b) -> {
-                                throw new RuntimeException();
-                              }),
-                              LinkedHashMap::new));
-
-              configurationGroups.put(name, value);
-            });
-
-    objectMapper.writeValue(writer, lockFile);
+    LockFileWriter.write(this, comment, writer);
+  }
+
+  /** Writes these groups to an internal (binary) resolved configuration groups file. */
+  public void writeBinaryTo(File file) throws IOException {
+    BinaryGroupsFile.write(this, file);
+  }
+
+  /** Reads groups from an internal (binary) resolved configuration groups file. */
+  public static DependencyGroups readBinaryFrom(File file) throws IOException {
+    return BinaryGroupsFile.read(file);
   }
 
   public static DependencyGroups readFrom(File file) throws IOException {
-    LockFile lockFile;
+    return LockFileReader.read(file);
+  }
+
+  /**
+   * Compute a stable content digest of all groups, their dependencies (group, module, version) and
+   * dependency sources.
+   *
+   * @return Hex-encoded SHA-256 digest.
+   */
+  public String digest() {
+    return digest(groupDigests());
+  }
+
+  /**
+   * Compute the content digest of all groups (see {@link #digest()}) from already computed digests
+   * of each group.
+   */
+  static String digest(Map<String, String> groupDigests) {
+    MessageDigest md = sha256();
+    groupDigests.forEach(
+        (groupName, groupDigest) -> {
+          update(md, groupName);
+          update(md, groupDigest);
+        });
+    return HexFormat.of().formatHex(md.digest());
+  }
+
+  /**
+   * Compute a stable content digest of each group: its dependencies (group, module, version) and
+   * dependency sources. The digest does not depend on the order in which sources were added. Empty
+   * groups have no content and are omitted.
+   *
+   * @return Group name mapped to hex-encoded SHA-256 digest of that group.
+   */
+  public TreeMap<String, String> groupDigests() {
+    var digests = new TreeMap<String, String>();
+    var sources = new ArrayList<DependencySource>();
+    dependencies.forEach(
+        (groupName, deps) -> {
+          if (deps.isEmpty()) {
+            return;
+          }
+          MessageDigest md = sha256();
+          for (var dep : deps) {
+            update(md, dep.getDependency());
+            sources.clear();
+            sources.addAll(dep.sources);
+            sources.sort(SOURCE_ORDER);
+            for (var source : sources) {
+              update(md, source.configuration());
+              update(md, source.projectPath());
+            }
+            md.update((byte) 0x01);
+          }
+          digests.put(groupName, HexFormat.of().formatHex(md.digest()));
+        });
+    return digests;
+  }
+
+  static MessageDigest sha256() {
     try {
-      lockFile = objectMapper.readValue(file, LockFile.class);
-    } catch (MismatchedInputException e) {
-      throw new GradleException(
-          "Existing lock file cannot be read, recreate it using writeLocks: " + file);
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException(e);
     }
+  }
 
-    var depGroups = new DependencyGroups();
-    lockFile.configurationGroups.forEach(
-        (name, depList) -> {
-          depList.forEach(
-              (dependency, source) -> {
-                String sourceKey = source.substring(0, source.indexOf(","));
-                depGroups.addOrMerge(
-                    name, new DependencyInfo(dependency, lockFile.keyToSource.get(sourceKey)));
-              });
-        });
+  private static void update(MessageDigest md, String value) {
+    md.update(value.getBytes(StandardCharsets.UTF_8));
+    md.update((byte) 0x00);
+  }
 
-    return depGroups;
+  /** Adds an empty group, unless a group with this name already exists. */
+  void addGroup(String groupName) {
+    group(groupName);
   }
 
   /**
@@ -128,20 +163,28 @@ public class DependencyGroups implements Serializable {
    * @param dependencyInfo The dependency info to be added or merged.
    */
   public void addOrMerge(String groupName, DependencyInfo dependencyInfo) {
-    var lookupKey = groupName + " -> " + dependencyInfo.id();
-    var owned = dependencyByGroupAndId.get(lookupKey);
+    addOrMerge(group(groupName), dependencyInfo);
+  }
+
+  private static void addOrMerge(
+      TreeMap<DependencyCoordinates, DependencyInfo> group, DependencyInfo dependencyInfo) {
+    var owned = group.get(dependencyInfo.coordinates);
     if (owned != null) {
       owned.sources.addAll(dependencyInfo.sources);
     } else {
-      owned =
-          new DependencyInfo(
-              dependencyInfo.getDependency(), new ArrayList<>(dependencyInfo.sources));
-      dependencyByGroupAndId.put(lookupKey, owned);
-      dependencies
-          .computeIfAbsent(
-              groupName, key -> new TreeSet<>(DependencyInfo.COMPARE_BY_GROUP_MODULE_THEN_ID))
-          .add(owned);
+      owned = new DependencyInfo(dependencyInfo.coordinates, dependencyInfo.sources);
+      group.put(owned.coordinates, owned);
+    }
+  }
+
+  private TreeMap<DependencyCoordinates, DependencyInfo> group(String groupName) {
+    var group = index.get(groupName);
+    if (group == null) {
+      group = new TreeMap<>(DependencyCoordinates.COMPARE_BY_GROUP_MODULE_THEN_VERSION);
+      index.put(groupName, group);
+      dependencies.put(groupName, Collections.unmodifiableCollection(group.values()));
     }
+    return group;
   }
 
   /**
@@ -153,19 +196,115 @@ public class DependencyGroups implements Serializable {
     mergeInternal(other.dependencies);
   }
 
-  private void mergeInternal(Map<String, ? extends Set<DependencyInfo>> other) {
+  private void mergeInternal(Map<String, ? extends Collection<DependencyInfo>> other) {
     other.forEach(
         (groupName, entries) -> {
-          entries.forEach(
-              entry -> {
-                addOrMerge(groupName, entry);
-              });
+          if (entries.isEmpty()) {
+            return;
+          }
+          var group = group(groupName);
+          for (var entry : entries) {
+            addOrMerge(group, entry);
+          }
+        });
+  }
+
+  /** @return The total number of dependencies, across all groups. */
+  public int size() {
+    int size = 0;
+    for (var group : index.values()) {
+      size += group.size();
+    }
+    return size;
+  }
+
+  /**
+   * Removes sources of the other groups' dependencies from these groups. Dependencies left without
+   * any sources (and groups left without any dependencies) are removed.
+   *
+   * @param other the dependency groups to subtract.
+   */
+  public void subtract(DependencyGroups other) {
+    other.index.forEach(
+        (groupName, entries) -> {
+          var group = index.get(groupName);
+          if (group == null) {
+            return;
+          }
+          for (var entry : entries.values()) {
+            var owned = group.get(entry.coordinates);
+            if (owned != null) {
+              owned.sources.removeAll(entry.sources);
+              if (owned.sources.isEmpty()) {
+                group.remove(owned.coordinates);
+              }
+            }
+          }
+          if (group.isEmpty()) {
+            index.remove(groupName);
+            dependencies.remove(groupName);
+          }
+        });
+  }
+
+  /** @return A copy of dependencies with the given coordinates, in each group. */
+  DependencyGroups select(Map<String, ? extends Collection<DependencyCoordinates>> coordinates) {
+    var result = new DependencyGroups();
+    coordinates.forEach(
+        (groupName, coords) -> {
+          var group = index.get(groupName);
+          if (group == null) {
+            return;
+          }
+          for (var c : coords) {
+            var dep = group.get(c);
+            if (dep != null) {
+              result.addOrMerge(groupName, dep);
+            }
+          }
         });
+    return result;
+  }
+
+  /**
+   * @return A copy of dependencies with the same group and module (and any version) as any of the
+   *     given coordinates, in each group.
+   */
+  DependencyGroups selectModules(
+      Map<String, ? extends Collection<DependencyCoordinates>> coordinates) {
+    var result = new DependencyGroups();
+    coordinates.forEach(
+        (groupName, coords) -> {
+          var group = index.get(groupName);
+          if (group == null) {
+            return;
+          }
+          for (var c : coords) {
+            // All versions of a module are adjacent in the group's order.
+            for (var dep : group.headMap(c, true).descendingMap().values()) {
+              if (!dep.coordinates.sameGroupAndModule(c)) {
+                break;
+              }
+              result.addOrMerge(groupName, dep);
+            }
+            for (var dep : group.tailMap(c, false).values()) {
+              if (!dep.coordinates.sameGroupAndModule(c)) {
+                break;
+              }
+              result.addOrMerge(groupName, dep);
+            }
+          }
+        });
+    return result;
   }
 
   DependencyInfo getIfExists(String groupName, DependencyInfo other) {
-    var lookupKey = groupName + " -> " + other.id();
-    return dependencyByGroupAndId.get(lookupKey);
+    return getIfExists(groupName, other.coordinates);
+  }
+
+  DependencyInfo getIfExists(String groupName, DependencyCoordinates coordinates) {
+    var group = index.get(groupName);
+    return group == null ? null : group.get(coordinates);
   }
 
   private static ObjectMapper getObjectMapper() {
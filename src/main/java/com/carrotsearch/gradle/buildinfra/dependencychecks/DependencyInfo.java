@@ -1,8 +1,9 @@
 package com.carrotsearch.gradle.buildinfra.dependencychecks;
 
 import java.io.Serializable;
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import org.gradle.api.artifacts.ModuleVersionIdentifier;
 
@@ -12,47 +13,57 @@ import org.gradle.api.artifacts.ModuleVersionIdentifier;
  */
 class DependencyInfo implements Serializable {
   public static Comparator<DependencyInfo> COMPARE_BY_GROUP_MODULE_THEN_ID =
-      Comparator.comparing(DependencyInfo::idWithoutVersion).thenComparing(u -> u.version);
+      (a, b) ->
+          DependencyCoordinates.COMPARE_BY_GROUP_MODULE_THEN_VERSION.compare(
+              a.coordinates, b.coordinates);
 
-  private String group;
-  private String module;
-  private String version;
+  /** Canonical (interned) coordinates of this dependency. */
+  final DependencyCoordinates coordinates;
 
-  /** One or more "sources" of this dependency. Typically, project path and configuration name. */
-  final List<DependencySource> sources;
+  /**
+   * One or more unique "sources" of this dependency, in the order of addition. Typically, project
+   * path and configuration name.
+   */
+  final LinkedHashSet<DependencySource> sources;
+
+  DependencyInfo(DependencyCoordinates coordinates, Collection<DependencySource> sources) {
+    this.coordinates = coordinates;
+    this.sources = new LinkedHashSet<>(sources);
+  }
 
   DependencyInfo(ModuleVersionIdentifier id, List<DependencySource> sources) {
-    this.group = id.getGroup();
-    this.module = id.getName();
-    this.version = id.getVersion();
-    this.sources = new ArrayList<>(sources);
+    this(DependencyCoordinates.of(id), sources);
+  }
+
+  DependencyInfo(String group, String module, String version, List<DependencySource> sources) {
+    this(DependencyCoordinates.of(group, module, version), sources);
   }
 
   DependencyInfo(String dependency, List<DependencySource> sources) {
-    String[] coords = dependency.split(":");
-    if (coords.length != 3) {
-      throw new RuntimeException(
-          "Something is not right with this dependency coords: " + dependency);
-    }
-    this.group = coords[0];
-    this.module = coords[1];
-    this.version = coords[2];
-    this.sources = new ArrayList<>(sources);
+    this(DependencyCoordinates.parse(dependency), sources);
   }
 
   String idWithoutVersion() {
-    return group + ":" + module;
+    return coordinates.idWithoutVersion();
   }
 
   String id() {
-    return getDependency();
+    return coordinates.id();
+  }
+
+  String getGroup() {
+    return coordinates.group();
+  }
+
+  String getModule() {
+    return coordinates.module();
   }
 
   String getVersion() {
-    return version;
+    return coordinates.version();
   }
 
   String getDependency() {
-    return group + ":" + module + ":" + version;
+    return coordinates.id();
   }
 }
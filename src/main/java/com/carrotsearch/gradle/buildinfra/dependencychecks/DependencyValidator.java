@@ -0,0 +1,96 @@
+package com.carrotsearch.gradle.buildinfra.dependencychecks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import org.gradle.api.GradleException;
+
+/**
+ * Applies {@link ValidationRule}s to dependency groups in a single scan of each group. Groups may
+ * be scanned in parallel; diagnostics are always returned in the same order: by group name, then by
+ * rule (in the order rules were given), then in the order reported by the rule.
+ */
+final class DependencyValidator {
+  private final List<ValidationRule> rules;
+
+  DependencyValidator(List<ValidationRule> rules) {
+    this.rules = List.copyOf(rules);
+  }
+
+  /** @return A validator with all built-in rules. */
+  static DependencyValidator defaultRules() {
+    return new DependencyValidator(List.of(new ConsistentVersionsRule()));
+  }
+
+  /**
+   * Validates all groups.
+   *
+   * @param groups Dependency groups to validate.
+   * @param parallelism The number of threads to validate groups with.
+   * @return Diagnostics, in a deterministic order. An empty list means no problems were found.
+   */
+  List<ValidationRule.Diagnostic> validate(DependencyGroups groups, int parallelism) {
+    var tasks = new ArrayList<Callable<List<ValidationRule.Diagnostic>>>();
+    for (Map.Entry<String, Collection<DependencyInfo>> e : groups.getDependencies().entrySet()) {
+      tasks.add(() -> validate(e.getKey(), e.getValue()));
+    }
+
+    var diagnostics = new ArrayList<ValidationRule.Diagnostic>();
+    if (parallelism <= 1 || tasks.size() <= 1) {
+      for (var task : tasks) {
+        try {
+          diagnostics.addAll(task.call());
+        } catch (Exception e) {
+          throw new GradleException("Could not validate dependency groups.", e);
+        }
+      }
+      return diagnostics;
+    }
+
+    var pool = new ForkJoinPool(parallelism);
+    try {
+      // Futures are collected in group order, regardless of the order in which they complete.
+      for (Future<List<ValidationRule.Diagnostic>> future : pool.invokeAll(tasks)) {
+        diagnostics.addAll(future.get());
+      }
+      return diagnostics;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new GradleException("Interrupted while validating dependency groups.", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException re) {
+        throw re;
+      }
+      throw new GradleException("Could not validate dependency groups.", e.getCause());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private List<ValidationRule.Diagnostic> validate(
+      String groupName, Collection<DependencyInfo> dependencies) {
+    var visitors = new ArrayList<ValidationRule.GroupVisitor>(rules.size());
+    for (var rule : rules) {
+      visitors.add(rule.visitGroup(groupName));
+    }
+
+    for (var dependency : dependencies) {
+      for (var visitor : visitors) {
+        visitor.visit(dependency);
+      }
+    }
+
+    var diagnostics = new ArrayList<ValidationRule.Diagnostic>();
+    for (int i = 0; i < rules.size(); i++) {
+      for (var message : visitors.get(i).finish()) {
+        diagnostics.add(new ValidationRule.Diagnostic(groupName, rules.get(i).name(), message));
+      }
+    }
+    return diagnostics;
+  }
+}
@@ -10,6 +10,37 @@ public abstract class DependencyVersionChecksExtension {
 
   public abstract Property<String> getLockFileComment();
 
+  /**
+   * The number of threads used by lock file tasks to read, merge and validate resolved
+   * configuration groups of all projects. The default value of one does everything sequentially.
+   */
+  public abstract Property<Integer> getMergeParallelism();
+
+  /**
+   * If enabled, resolved configuration groups are handed off from resolution tasks to lock file
+   * tasks in memory (when both run in the same build), instead of being parsed from files again.
+   * Resolution tasks only keep groups in memory if this is enabled in their project, so enable it
+   * in all projects (for example, in an {@code allprojects} block). Disabled by default.
+   */
+  public abstract Property<Boolean> getInMemoryHandoff();
+
+  /**
+   * If enabled, wall time and entry counts of dependency check phases are recorded (per task,
+   * subproject and configuration) and written to {@code reports/dependency-checks/metrics.json}
+   * under the root project's build directory. A summary of the slowest subprojects and
+   * configurations is printed at the end of the build. Disabled by default.
+   */
+  public abstract Property<Boolean> getPhaseMetrics();
+
+  /**
+   * If enabled, configurations whose dependency graphs resolve to identical module sets (within and
+   * across projects) are written to {@code reports/dependency-checks/identical-graphs.json} under
+   * the root project's build directory. Such configurations are candidates for pruning from
+   * configuration groups. Projects whose resolution tasks did not execute (and recorded no graphs)
+   * are listed under {@code skippedProjects}. Disabled by default.
+   */
+  public abstract Property<Boolean> getRedundancyReport();
+
   @Nested
   public abstract NamedDomainObjectContainer<ConfigurationGroup> getConfigurationGroups();
 
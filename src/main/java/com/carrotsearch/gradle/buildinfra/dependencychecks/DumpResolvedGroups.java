@@ -0,0 +1,32 @@
+package com.carrotsearch.gradle.buildinfra.dependencychecks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+
+/** Dumps an internal (binary) resolved configuration groups file as JSON, for troubleshooting. */
+public abstract class DumpResolvedGroups extends DefaultTask {
+  public static final String TASK_NAME = "dumpResolvedConfigurationGroups";
+
+  @InputFile
+  @PathSensitive(PathSensitivity.NONE)
+  public abstract RegularFileProperty getInput();
+
+  @OutputFile
+  public abstract RegularFileProperty getOutput();
+
+  @TaskAction
+  public void action() throws IOException {
+    var output = getOutput().get().getAsFile();
+    Files.createDirectories(output.toPath().getParent());
+    DependencyGroups.readBinaryFrom(getInput().get().getAsFile())
+        .writeTo("Internal resolved configuration groups (dump).", output);
+    getLogger().lifecycle("Resolved configuration groups written to: " + output);
+  }
+}
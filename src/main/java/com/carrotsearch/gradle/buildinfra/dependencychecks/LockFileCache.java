@@ -0,0 +1,111 @@
+package com.carrotsearch.gradle.buildinfra.dependencychecks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Property;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+/**
+ * A shared service caching parsed and already validated lock files, along with content digests of
+ * their groups. Entries are keyed by the lock file's path, size and content hash so any change to
+ * the file results in a cache miss.
+ *
+ * <p>The cache itself is static so that it survives across builds executed by the same daemon (as
+ * long as the plugin's classes are reused). The number of cached entries is bounded, the least
+ * recently used entries are evicted first.
+ */
+public abstract class LockFileCache implements BuildService<LockFileCache.Params> {
+  public static final String SERVICE_NAME = "dependencyChecksLockFileCache";
+
+  public interface Params extends BuildServiceParameters {
+    /** The maximum number of cached lock files. */
+    Property<Integer> getMaxEntries();
+  }
+
+  private record Key(String path, long size, byte[] contentHash) {
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof Key other
+          && path.equals(other.path)
+          && size == other.size
+          && Arrays.equals(contentHash, other.contentHash);
+    }
+
+    @Override
+    public int hashCode() {
+      return (path.hashCode() * 31 + Long.hashCode(size)) * 31 + Arrays.hashCode(contentHash);
+    }
+  }
+
+  private static final Logger logger = Logging.getLogger(LockFileCache.class);
+
+  /**
+   * A parsed lock file and digests of its groups (see {@link DependencyGroups#groupDigests()}),
+   * computed from the parsed entries.
+   */
+  record Validated(DependencyGroups groups, Map<String, String> groupDigests) {}
+
+  private static final LinkedHashMap<Key, Validated> cache =
+      new LinkedHashMap<>(16, 0.75f, true);
+
+  /**
+   * Returns the parsed lock file, reading and validating it only if it is not cached already.
+   *
+   * @param lockFile The lock file to read.
+   * @param reader Reads the lock file on a cache miss.
+   * @param validator Validation checks, throwing an exception if the lock file is not valid.
+   *     Invalid lock files are not cached.
+   * @return Parsed lock file and its group digests. The returned object is shared and must not be
+   *     modified.
+   */
+  public Validated getValidated(
+      File lockFile,
+      AbstractLockFileTask.GroupsReader reader,
+      Consumer<DependencyGroups> validator)
+      throws IOException {
+    var key = new Key(lockFile.getAbsolutePath(), lockFile.length(), contentHash(lockFile));
+    synchronized (cache) {
+      var cached = cache.get(key);
+      if (cached != null) {
+        logger.info("Reusing cached and validated lock file: {}", lockFile);
+        return cached;
+      }
+    }
+
+    DependencyGroups groups = reader.read(lockFile);
+    validator.accept(groups);
+    var validated = new Validated(groups, Collections.unmodifiableMap(groups.groupDigests()));
+
+    synchronized (cache) {
+      cache.put(key, validated);
+      int maxEntries = getParameters().getMaxEntries().get();
+      var it = cache.entrySet().iterator();
+      while (cache.size() > maxEntries && it.hasNext()) {
+        it.next();
+        it.remove();
+      }
+    }
+    return validated;
+  }
+
+  private static byte[] contentHash(File file) throws IOException {
+    MessageDigest md = DependencyGroups.sha256();
+    try (InputStream is = new DigestInputStream(Files.newInputStream(file.toPath()), md)) {
+      is.transferTo(OutputStream.nullOutputStream());
+    }
+    return md.digest();
+  }
+}
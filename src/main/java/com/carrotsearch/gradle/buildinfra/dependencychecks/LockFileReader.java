@@ -0,0 +1,133 @@
+package com.carrotsearch.gradle.buildinfra.dependencychecks;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.gradle.api.GradleException;
+
+/**
+ * A streaming reader of lock files. Builds {@link DependencyGroups} in a single pass over the JSON
+ * tokens, without an intermediate model. Source keys ("because" section) are resolved as soon as
+ * they are known; entries that precede the "because" section are resolved after it has been read.
+ */
+final class LockFileReader {
+  private final File file;
+  private final JsonParser parser;
+  private final DependencyGroups groups = new DependencyGroups();
+
+  private Map<String, List<DependencySource>> because;
+  private final List<PendingEntry> pending = new ArrayList<>();
+
+  private record PendingEntry(String groupName, DependencyInfo dependency, String sourceKey) {}
+
+  private LockFileReader(File file, JsonParser parser) {
+    this.file = file;
+    this.parser = parser;
+  }
+
+  static DependencyGroups read(File file) throws IOException {
+    try (var parser = DependencyGroups.objectMapper.getFactory().createParser(file)) {
+      return new LockFileReader(file, parser).read();
+    }
+  }
+
+  private DependencyGroups read() throws IOException {
+    expect(parser.nextToken(), JsonToken.START_OBJECT);
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.currentName();
+      parser.nextToken();
+      switch (field) {
+        case "comment" -> parser.skipChildren();
+        case "configurationGroups" -> readConfigurationGroups();
+        case "because" -> readBecause();
+        default -> throw cannotRead();
+      }
+    }
+    expect(parser.currentToken(), JsonToken.END_OBJECT);
+
+    for (var entry : pending) {
+      entry.dependency().sources.addAll(sources(entry.sourceKey()));
+      groups.addOrMerge(entry.groupName(), entry.dependency());
+    }
+
+    return groups;
+  }
+
+  private void readConfigurationGroups() throws IOException {
+    expect(parser.currentToken(), JsonToken.START_OBJECT);
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String groupName = parser.currentName();
+      groups.addGroup(groupName);
+      expect(parser.nextToken(), JsonToken.START_OBJECT);
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String dependency = parser.currentName();
+        expect(parser.nextToken(), JsonToken.VALUE_STRING);
+        String value = parser.getText();
+
+        int comma = value.indexOf(',');
+        String sourceKey = comma < 0 ? value : value.substring(0, comma);
+
+        if (because != null) {
+          groups.addOrMerge(groupName, coordinates(dependency, sources(sourceKey)));
+        } else {
+          pending.add(
+              new PendingEntry(groupName, coordinates(dependency, new ArrayList<>()), sourceKey));
+        }
+      }
+    }
+  }
+
+  private void readBecause() throws IOException {
+    expect(parser.currentToken(), JsonToken.START_OBJECT);
+    because = new HashMap<>();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String key = parser.currentName();
+      expect(parser.nextToken(), JsonToken.START_ARRAY);
+      List<DependencySource> sources = new ArrayList<>();
+      while (parser.nextToken() == JsonToken.START_OBJECT) {
+        String configuration = null;
+        String projectPath = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          String field = parser.currentName();
+          parser.nextToken();
+          switch (field) {
+            case "configuration" -> configuration = parser.getValueAsString();
+            case "projectPath" -> projectPath = parser.getValueAsString();
+            default -> throw cannotRead();
+          }
+        }
+        sources.add(new DependencySource(configuration, projectPath));
+      }
+      expect(parser.currentToken(), JsonToken.END_ARRAY);
+      because.put(key, sources);
+    }
+  }
+
+  private List<DependencySource> sources(String sourceKey) {
+    var sources = because.get(sourceKey);
+    if (sources == null) {
+      throw cannotRead();
+    }
+    return sources;
+  }
+
+  private static DependencyInfo coordinates(String dependency, List<DependencySource> sources) {
+    return new DependencyInfo(DependencyCoordinates.parse(dependency), sources);
+  }
+
+  private void expect(JsonToken actual, JsonToken expected) {
+    if (actual != expected) {
+      throw cannotRead();
+    }
+  }
+
+  private GradleException cannotRead() {
+    return new GradleException(
+        "Existing lock file cannot be read, recreate it using writeLocks: " + file);
+  }
+}
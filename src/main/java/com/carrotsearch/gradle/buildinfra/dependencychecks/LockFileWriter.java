@@ -0,0 +1,142 @@
+package com.carrotsearch.gradle.buildinfra.dependencychecks;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * A streaming writer of lock files. Emits {@link DependencyGroups} straight to a {@link
+ * JsonGenerator} configured by {@link DependencyGroups#objectMapper}. Apart from the map of unique
+ * source lists, only a bounded amount of memory is allocated.
+ */
+final class LockFileWriter {
+  private static final HexFormat HEX = HexFormat.of();
+
+  private final JsonGenerator generator;
+  private char[] buffer = new char[32];
+
+  private LockFileWriter(JsonGenerator generator) {
+    this.generator = generator;
+  }
+
+  static void write(DependencyGroups groups, String comment, Writer writer) throws IOException {
+    var mapper = DependencyGroups.objectMapper;
+    try (var generator = mapper.getFactory().createGenerator(writer)) {
+      mapper.getSerializationConfig().initialize(generator);
+      new LockFileWriter(generator).write(groups, comment);
+    }
+  }
+
+  private void write(DependencyGroups groups, String comment) throws IOException {
+    Map<String, Collection<DependencyInfo>> dependencies = groups.getDependencies();
+
+    // Collect unique sources, assigning keys in the order of first appearance.
+    TreeMap<String, Set<DependencySource>> keyToSource = new TreeMap<>();
+    HashMap<Set<DependencySource>, String> sourceToKey = new HashMap<>();
+    for (var depInfos : dependencies.values()) {
+      for (var depInfo : depInfos) {
+        sourceToKey.computeIfAbsent(
+            depInfo.sources,
+            source -> {
+              String key = HEX.toHexDigits(sourcesHash(source));
+              // Add synthetic padding in case hash codes are not unique.
+              while (keyToSource.containsKey(key)) {
+                key = key + "P";
+              }
+
+              keyToSource.put(key, source);
+              return key;
+            });
+      }
+    }
+
+    generator.writeStartObject();
+    generator.writeStringField("comment", comment);
+
+    generator.writeFieldName("configurationGroups");
+    generator.writeStartObject();
+    for (var e : dependencies.entrySet()) {
+      generator.writeFieldName(e.getKey());
+      generator.writeStartObject();
+      for (var depInfo : e.getValue()) {
+        generator.writeFieldName(depInfo.getDependency());
+        writeSourceRef(sourceToKey.get(depInfo.sources), depInfo.sources.size());
+      }
+      generator.writeEndObject();
+    }
+    generator.writeEndObject();
+
+    generator.writeFieldName("because");
+    generator.writeStartObject();
+    for (var e : keyToSource.entrySet()) {
+      generator.writeFieldName(e.getKey());
+      generator.writeStartArray();
+      for (var source : e.getValue()) {
+        generator.writeStartObject();
+        generator.writeStringField("configuration", source.configuration());
+        generator.writeStringField("projectPath", source.projectPath());
+        generator.writeEndObject();
+      }
+      generator.writeEndArray();
+    }
+    generator.writeEndObject();
+
+    generator.writeEndObject();
+  }
+
+  /**
+   * Hash code of sources, computed as if they were a {@link List} (this keeps keys compatible with
+   * existing lock files).
+   */
+  private static int sourcesHash(Set<DependencySource> sources) {
+    int hash = 1;
+    for (var source : sources) {
+      hash = 31 * hash + source.hashCode();
+    }
+    return hash;
+  }
+
+  /** Writes a {@code key,refs=count} value without allocating intermediate strings. */
+  private void writeSourceRef(String key, int refs) throws IOException {
+    final String infix = ",refs=";
+    int len = key.length() + infix.length() + 11;
+    if (buffer.length < len) {
+      buffer = new char[len];
+    }
+
+    int pos = 0;
+    key.getChars(0, key.length(), buffer, pos);
+    pos += key.length();
+    infix.getChars(0, infix.length(), buffer, pos);
+    pos += infix.length();
+    pos = appendInt(refs, pos);
+
+    generator.writeString(buffer, 0, pos);
+  }
+
+  private int appendInt(int value, int pos) {
+    if (value == 0) {
+      buffer[pos] = '0';
+      return pos + 1;
+    }
+
+    int start = pos;
+    while (value > 0) {
+      buffer[pos++] = (char) ('0' + value % 10);
+      value /= 10;
+    }
+
+    for (int i = start, j = pos - 1; i < j; i++, j--) {
+      char tmp = buffer[i];
+      buffer[i] = buffer[j];
+      buffer[j] = tmp;
+    }
+    return pos;
+  }
+}
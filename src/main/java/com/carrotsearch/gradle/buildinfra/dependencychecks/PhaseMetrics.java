@@ -0,0 +1,180 @@
+package com.carrotsearch.gradle.buildinfra.dependencychecks;
+
+import static com.carrotsearch.gradle.buildinfra.dependencychecks.CheckLocks.fmt;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Property;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+/**
+ * A shared service collecting wall time and entry counts of dependency check phases (per task,
+ * subproject and configuration). When the build finishes, collected metrics are written to a JSON
+ * report and a short summary of the slowest subprojects and configurations is logged.
+ */
+public abstract class PhaseMetrics implements BuildService<PhaseMetrics.Params>, AutoCloseable {
+  public static final String SERVICE_NAME = "dependencyChecksPhaseMetrics";
+
+  // Phase names.
+  static final String COLLECT = "collect";
+  static final String WRITE_RESOLVED = "writeResolved";
+  static final String MERGE = "merge";
+  static final String VALIDATE = "validate";
+  static final String DIGEST = "digest";
+  static final String READ_LOCK_FILE = "readLockFile";
+  static final String COMPARE = "compare";
+  static final String WRITE_LOCK_FILE = "writeLockFile";
+
+  /** The number of slowest subprojects and configurations listed in the summary. */
+  private static final int SUMMARY_SIZE = 5;
+
+  public interface Params extends BuildServiceParameters {
+    /** The JSON report file (under the root project's build directory). */
+    RegularFileProperty getReportFile();
+  }
+
+  private record Entry(
+      String task, String project, String phase, String configuration, long nanos, long entries) {}
+
+  private static final Logger logger = Logging.getLogger(PhaseMetrics.class);
+
+  private final ConcurrentLinkedQueue<Entry> entries = new ConcurrentLinkedQueue<>();
+
+  /**
+   * Records a single phase.
+   *
+   * @param taskPath Path of the task the phase belongs to.
+   * @param phase Phase name.
+   * @param configuration Configuration name, if the phase is specific to a configuration, {@code
+   *     null} otherwise.
+   * @param startNanos Start of the phase, as returned by {@link System#nanoTime()}.
+   * @param entries The number of entries (dependencies) processed in this phase.
+   */
+  public void record(
+      String taskPath, String phase, String configuration, long startNanos, long entries) {
+    long nanos = System.nanoTime() - startNanos;
+    int split = taskPath.lastIndexOf(':');
+    String project = split <= 0 ? ":" : taskPath.substring(0, split);
+    this.entries.add(new Entry(taskPath, project, phase, configuration, nanos, entries));
+  }
+
+  /** A convenience method recording a phase if the metrics service is present. */
+  static void record(
+      Property<PhaseMetrics> metrics,
+      String taskPath,
+      String phase,
+      String configuration,
+      long startNanos,
+      long entries) {
+    if (metrics.isPresent()) {
+      metrics.get().record(taskPath, phase, configuration, startNanos, entries);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (entries.isEmpty()) {
+      return;
+    }
+
+    var sorted = new ArrayList<>(entries);
+    sorted.sort(
+        Comparator.comparing(Entry::task)
+            .thenComparing(Entry::phase)
+            .thenComparing(e -> e.configuration() == null ? "" : e.configuration()));
+
+    var perProject = new TreeMap<String, Long>();
+    for (var e : sorted) {
+      perProject.merge(e.project(), e.nanos(), Long::sum);
+    }
+
+    if (!getParameters().getReportFile().isPresent()) {
+      logger.warn(
+          "Dependency checks metrics not written, the plugin is not applied to the root project.");
+      return;
+    }
+    var reportFile = getParameters().getReportFile().get().getAsFile();
+    Files.createDirectories(reportFile.toPath().getParent());
+    writeReport(reportFile.toPath(), sorted, perProject);
+
+    var buf = new StringBuilder();
+    buf.append("Dependency checks metrics written to: ").append(reportFile).append("\n");
+    buf.append("  Slowest subprojects:\n");
+    perProject.entrySet().stream()
+        .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+        .limit(SUMMARY_SIZE)
+        .forEach(e -> buf.append(fmt("    %-40s %,10.1f ms%n", e.getKey(), millis(e.getValue()))));
+
+    var configurations =
+        sorted.stream()
+            .filter(e -> e.configuration() != null)
+            .sorted(Comparator.comparingLong(Entry::nanos).reversed())
+            .limit(SUMMARY_SIZE)
+            .toList();
+    if (!configurations.isEmpty()) {
+      buf.append("  Slowest configurations:\n");
+      for (var e : configurations) {
+        buf.append(
+            fmt(
+                "    %-40s %,10.1f ms (%,d entries)%n",
+                e.project() + " " + e.configuration(),
+                millis(e.nanos()),
+                e.entries()));
+      }
+    }
+    logger.lifecycle(buf.toString().stripTrailing());
+  }
+
+  private static void writeReport(
+      Path reportFile, List<Entry> sorted, Map<String, Long> perProject) throws IOException {
+    var mapper = DependencyGroups.objectMapper;
+    try (var writer = Files.newBufferedWriter(reportFile);
+        var generator = mapper.getFactory().createGenerator(writer)) {
+      mapper.getSerializationConfig().initialize(generator);
+      generator.writeStartObject();
+
+      generator.writeFieldName("phases");
+      generator.writeStartArray();
+      for (var e : sorted) {
+        generator.writeStartObject();
+        generator.writeStringField("task", e.task());
+        generator.writeStringField("project", e.project());
+        generator.writeStringField("phase", e.phase());
+        if (e.configuration() != null) {
+          generator.writeStringField("configuration", e.configuration());
+        }
+        generator.writeNumberField("millis", millis(e.nanos()));
+        generator.writeNumberField("entries", e.entries());
+        generator.writeEndObject();
+      }
+      generator.writeEndArray();
+
+      generator.writeFieldName("projects");
+      generator.writeStartObject();
+      for (var e : perProject.entrySet()) {
+        generator.writeFieldName(e.getKey());
+        generator.writeStartObject();
+        generator.writeNumberField("millis", millis(e.getValue()));
+        generator.writeEndObject();
+      }
+      generator.writeEndObject();
+
+      generator.writeEndObject();
+    }
+  }
+
+  private static double millis(long nanos) {
+    return Math.round(nanos / 1000d) / 1000d;
+  }
+}
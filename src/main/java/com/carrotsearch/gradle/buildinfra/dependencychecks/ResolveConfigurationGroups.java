@@ -1,154 +1,224 @@
 package com.carrotsearch.gradle.buildinfra.dependencychecks;
 
 import java.io.IOException;
-import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.security.MessageDigest;
 import java.util.ArrayDeque;
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.List;
-import java.util.Set;
-import java.util.TreeSet;
-import java.util.concurrent.Callable;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import javax.inject.Inject;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.GradleException;
-import org.gradle.api.NamedDomainObjectContainer;
 import org.gradle.api.artifacts.ModuleVersionIdentifier;
-import org.gradle.api.artifacts.result.DependencyResult;
+import org.gradle.api.artifacts.component.ComponentIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
 import org.gradle.api.artifacts.result.ResolvedComponentResult;
 import org.gradle.api.artifacts.result.ResolvedDependencyResult;
 import org.gradle.api.file.ProjectLayout;
 import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.model.ObjectFactory;
+import org.gradle.api.provider.MapProperty;
 import org.gradle.api.provider.Property;
-import org.gradle.api.provider.Provider;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.OutputFile;
 import org.gradle.api.tasks.TaskAction;
 
+/**
+ * Collects resolved dependencies of configurations belonging to each configuration group and writes
+ * them to an (internal) file, later aggregated by the root project's lock file tasks.
+ *
+ * <p>All inputs are wired at configuration time so that the task does not access the {@link
+ * org.gradle.api.Project} at execution time (configuration cache compatibility).
+ */
 public abstract class ResolveConfigurationGroups extends DefaultTask {
   public static final String TASK_NAME = "resolveConfigurationGroups";
 
+  /** Path of the project whose configurations are resolved. */
+  @Input
+  abstract Property<String> getProjectPath();
+
+  /** Configuration group name mapped to the (sorted) names of configurations it includes. */
+  @Input
+  abstract MapProperty<String, List<String>> getConfigurationGroups();
+
+  /** Configuration name mapped to the root of its resolved dependency graph. */
   @Internal
-  abstract NamedDomainObjectContainer<ConfigurationGroup> getConfigurationGroups();
+  abstract MapProperty<String, ResolvedComponentResult> getConfigurationRoots();
 
   /** The location of an output file to write the configuration group report to. */
-  private final RegularFileProperty output =
-      getObjects()
-          .fileProperty()
-          .convention(
-              getLayout()
-                  .file(
-                      getProvider(
-                          () -> {
-                            return getProject()
-                                .file(getTemporaryDir() + "/resolved-configuration-groups.json");
-                          })));
+  private final RegularFileProperty output;
 
+  /**
+   * A content digest of the resolved groups. This is the only input derived from resolution
+   * results: the (much larger) resolved content is written directly to the output file.
+   */
   @Input
-  abstract Property<String> getResolvedConfiguration();
+  abstract Property<String> getResolvedGroupsDigest();
+
+  /** Resolved groups, computed once per task instance. */
+  private transient DependencyGroups resolvedGroups;
+
+  /** An optional registry to hand off resolved groups in memory to lock file tasks. */
+  @Internal
+  abstract Property<ResolvedGroupsRegistry> getResolvedGroupsRegistry();
+
+  /** An optional service collecting phase metrics. */
+  @Internal
+  abstract Property<PhaseMetrics> getPhaseMetrics();
+
+  /** An optional service collecting fingerprints of resolved configuration graphs. */
+  @Internal
+  abstract Property<ResolvedGraphFingerprints> getResolvedGraphFingerprints();
 
   @OutputFile
   public RegularFileProperty getOutput() {
     return output;
   }
 
-  public ResolveConfigurationGroups() {
-    getResolvedConfiguration()
-        .set(
-            getProvider(
-                () -> {
-                  try (var sw = new StringWriter()) {
-                    computeDependencyGroups(getConfigurationGroups())
-                        .writeTo("Internal resolved lock file, do not edit.", sw);
-                    return sw.toString();
-                  }
-                }));
+  @Inject
+  public ResolveConfigurationGroups(ObjectFactory objects, ProjectLayout layout) {
+    this.output =
+        objects
+            .fileProperty()
+            .convention(
+                layout
+                    .getBuildDirectory()
+                    .file("tmp/" + getName() + "/resolved-configuration-groups.bin"));
+
+    getResolvedGroupsDigest()
+        .set(getConfigurationRoots().map(roots -> getResolvedGroups().digest()));
   }
 
   @TaskAction
   void action() throws IOException {
     Path depsFile = output.get().getAsFile().toPath();
     Files.createDirectories(depsFile.getParent());
-    Files.writeString(depsFile, getResolvedConfiguration().get());
+    long start = System.nanoTime();
+    getResolvedGroups().writeBinaryTo(depsFile.toFile());
+    PhaseMetrics.record(
+        getPhaseMetrics(),
+        getPath(),
+        PhaseMetrics.WRITE_RESOLVED,
+        null,
+        start,
+        getResolvedGroups().size());
+    if (getResolvedGroupsRegistry().isPresent()) {
+      getResolvedGroupsRegistry().get().register(depsFile.toFile(), getResolvedGroups());
+    }
+  }
+
+  private synchronized DependencyGroups getResolvedGroups() {
+    if (resolvedGroups == null) {
+      resolvedGroups =
+          computeDependencyGroups(
+              getProjectPath().get(),
+              getConfigurationGroups().get(),
+              getConfigurationRoots().get(),
+              getPhaseMetrics(),
+              getResolvedGraphFingerprints(),
+              getPath());
+    }
+    return resolvedGroups;
   }
 
-  private DependencyGroups computeDependencyGroups(
-      NamedDomainObjectContainer<ConfigurationGroup> configurationGroups) {
+  private static DependencyGroups computeDependencyGroups(
+      String projectPath,
+      Map<String, List<String>> configurationGroups,
+      Map<String, ResolvedComponentResult> configurationRoots,
+      Property<PhaseMetrics> metrics,
+      Property<ResolvedGraphFingerprints> fingerprints,
+      String taskPath) {
+
+    // A configuration may belong to many groups: traverse its graph once and reuse the result.
+    var resolvedByConfiguration = new HashMap<String, List<DependencyCoordinates>>();
 
     var groups = new DependencyGroups();
-    var configurationsContainer = getProject().getConfigurations();
-    var projectPath = getProject().getPath();
-
-    for (var configurationGroup : configurationGroups) {
-      var includedConfigurationNames = configurationGroup.getIncludedConfigurations().get();
-      configurationsContainer
-          .matching(conf -> includedConfigurationNames.contains(conf.getName()))
-          .forEach(
-              configuration -> {
-                var configurationName = configuration.getName();
-                var graphRoot =
-                    configuration.getIncoming().getResolutionResult().getRootComponent().get();
-                collectAllResolved(graphRoot).stream()
-                    .map(
-                        moduleVersionIdentifier -> {
-                          return new DependencyInfo(
-                              moduleVersionIdentifier,
-                              List.of(new DependencySource(configurationName, projectPath)));
-                        })
-                    .forEach(depInfo -> groups.addOrMerge(configurationGroup.getName(), depInfo));
-              });
-    }
+    new TreeMap<>(configurationGroups)
+        .forEach(
+        (groupName, includedConfigurationNames) -> {
+          for (var configurationName : includedConfigurationNames) {
+            var graphRoot = configurationRoots.get(configurationName);
+            if (graphRoot == null) {
+              continue;
+            }
+
+            var resolved =
+                resolvedByConfiguration.computeIfAbsent(
+                    configurationName,
+                    key -> {
+                      long start = System.nanoTime();
+                      var coordinates = new ArrayList<DependencyCoordinates>();
+                      collectAllResolved(
+                          graphRoot, id -> coordinates.add(DependencyCoordinates.of(id)));
+                      PhaseMetrics.record(
+                          metrics, taskPath, PhaseMetrics.COLLECT, key, start, coordinates.size());
+                      if (fingerprints.isPresent()) {
+                        fingerprints
+                            .get()
+                            .record(projectPath, key, fingerprint(coordinates), coordinates.size());
+                      }
+                      return coordinates;
+                    });
+
+            var sources = List.of(new DependencySource(configurationName, projectPath));
+            for (var coordinates : resolved) {
+              groups.addOrMerge(groupName, new DependencyInfo(coordinates, sources));
+            }
+          }
+        });
 
     return groups;
   }
 
-  private Set<ModuleVersionIdentifier> collectAllResolved(ResolvedComponentResult graphRoot) {
-    HashSet<ResolvedDependencyResult> allResolved = new HashSet<>();
-    ArrayDeque<DependencyResult> queue = new ArrayDeque<>(graphRoot.getDependencies());
+  /**
+   * Sorts the coordinates and computes a fingerprint of the resolved module set.
+   *
+   * @return Hex-encoded SHA-256 digest of sorted coordinates.
+   */
+  private static String fingerprint(List<DependencyCoordinates> coordinates) {
+    coordinates.sort(DependencyCoordinates.COMPARE_BY_GROUP_MODULE_THEN_VERSION);
+    MessageDigest md = DependencyGroups.sha256();
+    for (var c : coordinates) {
+      md.update(c.id().getBytes(StandardCharsets.UTF_8));
+      md.update((byte) 0x00);
+    }
+    return HexFormat.of().formatHex(md.digest());
+  }
+
+  /**
+   * Visits each component reachable from the graph root once and passes module versions of external
+   * (module) components to the consumer.
+   */
+  private static void collectAllResolved(
+      ResolvedComponentResult graphRoot, Consumer<ModuleVersionIdentifier> consumer) {
+    HashSet<ComponentIdentifier> visited = new HashSet<>();
+    ArrayDeque<ResolvedComponentResult> queue = new ArrayDeque<>();
+    visited.add(graphRoot.getId());
+    queue.add(graphRoot);
 
     while (!queue.isEmpty()) {
-      var dep = queue.removeFirst();
-      if (dep instanceof ResolvedDependencyResult resolvedDep) {
-        if (allResolved.add(resolvedDep)) {
-          queue.addAll(resolvedDep.getSelected().getDependencies());
+      for (var dep : queue.removeFirst().getDependencies()) {
+        if (dep instanceof ResolvedDependencyResult resolvedDep) {
+          var selected = resolvedDep.getSelected();
+          if (visited.add(selected.getId())) {
+            if (selected.getId() instanceof ModuleComponentIdentifier) {
+              consumer.accept(selected.getModuleVersion());
+            }
+            queue.addLast(selected);
+          }
+        } else {
+          throw new GradleException("Unresolved dependency, can't apply forbidden APIs: " + dep);
         }
-      } else {
-        throw new GradleException("Unresolved dependency, can't apply forbidden APIs: " + dep);
       }
     }
-
-    Comparator<? super ModuleVersionIdentifier> comp =
-        Comparator.comparing(ModuleVersionIdentifier::getGroup)
-            .thenComparing(ModuleVersionIdentifier::getName)
-            .thenComparing(ModuleVersionIdentifier::getVersion);
-
-    return allResolved.stream()
-        .filter(
-            dep ->
-                dep.getSelected().getId()
-                    instanceof org.gradle.api.artifacts.component.ModuleComponentIdentifier)
-        .map(
-            dep -> {
-              return dep.getSelected().getModuleVersion();
-            })
-        .collect(Collectors.toCollection(() -> new TreeSet<>(comp)));
-  }
-
-  protected final <T> Provider<T> getProvider(Callable<T> value) {
-    return getProject().provider(value);
-  }
-
-  @Internal
-  protected final ProjectLayout getLayout() {
-    return getProject().getLayout();
-  }
-
-  @Internal
-  protected final ObjectFactory getObjects() {
-    return getProject().getObjects();
   }
 }
@@ -0,0 +1,181 @@
+package com.carrotsearch.gradle.buildinfra.dependencychecks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import org.gradle.tooling.events.FinishEvent;
+import org.gradle.tooling.events.OperationCompletionListener;
+import org.gradle.tooling.events.task.TaskFinishEvent;
+import org.gradle.tooling.events.task.TaskSkippedResult;
+import org.gradle.tooling.events.task.TaskSuccessResult;
+
+/**
+ * A shared service collecting fingerprints of resolved configuration graphs. When the build
+ * finishes, configurations (across all projects) whose graphs resolved to identical, non-empty
+ * module sets are written to a JSON report.
+ *
+ * <p>Resolution tasks that did not execute (for example, when the configuration cache is reused)
+ * may not record their fingerprints. Projects of such tasks are listed in the report, so that an
+ * incomplete report can be told apart from a complete one.
+ */
+public abstract class ResolvedGraphFingerprints
+    implements BuildService<ResolvedGraphFingerprints.Params>,
+        OperationCompletionListener,
+        AutoCloseable {
+  public static final String SERVICE_NAME = "dependencyChecksResolvedGraphFingerprints";
+
+  public interface Params extends BuildServiceParameters {
+    /** The JSON report file (under the root project's build directory). */
+    RegularFileProperty getReportFile();
+  }
+
+  private record Entry(DependencySource source, String fingerprint, int modules) {}
+
+  private static final Logger logger = Logging.getLogger(ResolvedGraphFingerprints.class);
+
+  private final ConcurrentLinkedQueue<Entry> entries = new ConcurrentLinkedQueue<>();
+
+  /** Paths of projects whose resolution tasks were up-to-date, taken from cache or skipped. */
+  private final ConcurrentLinkedQueue<String> notExecuted = new ConcurrentLinkedQueue<>();
+
+  /**
+   * Records the fingerprint of a resolved configuration graph.
+   *
+   * @param projectPath Path of the project the configuration belongs to.
+   * @param configuration Configuration name.
+   * @param fingerprint Fingerprint of the resolved module set.
+   * @param modules The number of resolved modules.
+   */
+  public void record(String projectPath, String configuration, String fingerprint, int modules) {
+    entries.add(new Entry(new DependencySource(configuration, projectPath), fingerprint, modules));
+  }
+
+  @Override
+  public void onFinish(FinishEvent event) {
+    if (event instanceof TaskFinishEvent taskEvent) {
+      String taskPath = taskEvent.getDescriptor().getTaskPath();
+      String suffix = ":" + ResolveConfigurationGroups.TASK_NAME;
+      if (!taskPath.endsWith(suffix)) {
+        return;
+      }
+
+      var result = taskEvent.getResult();
+      if (result instanceof TaskSkippedResult
+          || (result instanceof TaskSuccessResult success
+              && (success.isUpToDate() || success.isFromCache()))) {
+        String projectPath = taskPath.substring(0, taskPath.length() - suffix.length());
+        notExecuted.add(projectPath.isEmpty() ? ":" : projectPath);
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    // Resolution tasks may compute their groups more than once, so skip duplicate entries.
+    var byFingerprint = new TreeMap<String, TreeMap<String, Entry>>();
+    for (var e : entries) {
+      if (e.modules() > 0) {
+        byFingerprint
+            .computeIfAbsent(e.fingerprint(), k -> new TreeMap<>())
+            .putIfAbsent(e.source().projectPath() + " " + e.source().configuration(), e);
+      }
+    }
+
+    var identical = new ArrayList<List<Entry>>();
+    for (var sameGraph : byFingerprint.values()) {
+      if (sameGraph.size() > 1) {
+        identical.add(List.copyOf(sameGraph.values()));
+      }
+    }
+
+    // Projects without any recorded fingerprint are missing from the report.
+    var skippedProjects = new TreeSet<>(notExecuted);
+    for (var e : entries) {
+      skippedProjects.remove(e.source().projectPath());
+    }
+
+    if (identical.isEmpty() && skippedProjects.isEmpty()) {
+      return;
+    }
+
+    identical.sort(
+        Comparator.<List<Entry>>comparingInt(list -> list.get(0).modules())
+            .reversed()
+            .thenComparing(list -> list.get(0).fingerprint()));
+
+    if (!getParameters().getReportFile().isPresent()) {
+      logger.warn(
+          "Dependency checks identical graphs report not written, the plugin is not applied to"
+              + " the root project.");
+      return;
+    }
+    var reportFile = getParameters().getReportFile().get().getAsFile();
+    Files.createDirectories(reportFile.toPath().getParent());
+    writeReport(reportFile.toPath(), identical, skippedProjects);
+
+    if (!identical.isEmpty()) {
+      logger.lifecycle(
+          "Found {} set(s) of configurations with identical resolved graphs, see: {}",
+          identical.size(),
+          reportFile);
+    }
+    if (!skippedProjects.isEmpty()) {
+      logger.warn(
+          "Resolved graphs of {} project(s) were not collected because their resolution tasks did"
+              + " not execute, the report is incomplete: {}",
+          skippedProjects.size(),
+          reportFile);
+    }
+  }
+
+  private static void writeReport(
+      Path reportFile, List<List<Entry>> identical, Collection<String> skippedProjects)
+      throws IOException {
+    var mapper = DependencyGroups.objectMapper;
+    try (var writer = Files.newBufferedWriter(reportFile);
+        var generator = mapper.getFactory().createGenerator(writer)) {
+      mapper.getSerializationConfig().initialize(generator);
+      generator.writeStartObject();
+
+      generator.writeFieldName("identicalGraphs");
+      generator.writeStartArray();
+      for (var sameGraph : identical) {
+        generator.writeStartObject();
+        generator.writeStringField("fingerprint", sameGraph.get(0).fingerprint());
+        generator.writeNumberField("modules", sameGraph.get(0).modules());
+        generator.writeFieldName("configurations");
+        generator.writeStartArray();
+        for (var e : sameGraph) {
+          generator.writeStartObject();
+          generator.writeStringField("configuration", e.source().configuration());
+          generator.writeStringField("projectPath", e.source().projectPath());
+          generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+      }
+      generator.writeEndArray();
+
+      generator.writeFieldName("skippedProjects");
+      generator.writeStartArray();
+      for (var projectPath : skippedProjects) {
+        generator.writeString(projectPath);
+      }
+      generator.writeEndArray();
+
+      generator.writeEndObject();
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package com.carrotsearch.gradle.buildinfra.dependencychecks;
+
+import java.io.File;
+import java.util.concurrent.ConcurrentHashMap;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+
+/**
+ * A shared, build-scoped registry of resolved configuration groups. {@link
+ * ResolveConfigurationGroups} tasks register groups they have just written and the root project's
+ * lock file tasks can consume them from memory, without parsing output files again.
+ *
+ * <p>Each entry remembers the size and modification time of the file it was written to and is only
+ * returned if the file is still the same. Lock file tasks release entries once they have merged
+ * them, so groups are not kept in memory until the end of the build.
+ */
+public abstract class ResolvedGroupsRegistry
+    implements BuildService<BuildServiceParameters.None>, AutoCloseable {
+  public static final String SERVICE_NAME = "dependencyChecksResolvedGroups";
+
+  private record Entry(long size, long lastModified, DependencyGroups groups) {}
+
+  private static final Logger logger = Logging.getLogger(ResolvedGroupsRegistry.class);
+
+  private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+  /** Registers groups just written to the given file. */
+  public void register(File file, DependencyGroups groups) {
+    logger.info("Registered in-memory resolved groups for: {}", file);
+    entries.put(key(file), new Entry(file.length(), file.lastModified(), groups));
+  }
+
+  /** Releases groups registered for the given files, if any. */
+  public void release(Iterable<File> files) {
+    for (var file : files) {
+      entries.remove(key(file));
+    }
+  }
+
+  /**
+   * @return Groups registered for the given file or {@code null} if there are none (or the file has
+   *     changed since). The returned object is shared and must not be modified.
+   */
+  public DependencyGroups lookup(File file) {
+    var entry = entries.get(key(file));
+    if (entry == null
+        || entry.size() != file.length()
+        || entry.lastModified() != file.lastModified()) {
+      return null;
+    }
+    return entry.groups();
+  }
+
+  private static String key(File file) {
+    return file.getAbsolutePath();
+  }
+
+  @Override
+  public void close() {
+    if (!entries.isEmpty()) {
+      logger.info("In-memory resolved groups not used by lock file tasks: {}", entries.size());
+    }
+    entries.clear();
+  }
+}
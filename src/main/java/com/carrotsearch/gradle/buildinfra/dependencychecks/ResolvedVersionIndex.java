@@ -0,0 +1,40 @@
+package com.carrotsearch.gradle.buildinfra.dependencychecks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
+
+/** An index of resolved module versions of a single configuration, keyed by group and module. */
+final class ResolvedVersionIndex {
+  private final HashMap<String, HashMap<String, List<String>>> versions = new HashMap<>();
+
+  private ResolvedVersionIndex() {}
+
+  static ResolvedVersionIndex of(Configuration configuration) {
+    var index = new ResolvedVersionIndex();
+    for (var component : configuration.getIncoming().getResolutionResult().getAllComponents()) {
+      ModuleVersionIdentifier id = component.getModuleVersion();
+      if (id != null) {
+        index
+            .versions
+            .computeIfAbsent(id.getGroup(), k -> new HashMap<>())
+            .computeIfAbsent(id.getName(), k -> new ArrayList<>(1))
+            .add(id.getVersion());
+      }
+    }
+    return index;
+  }
+
+  /** @return All resolved versions of a given module (typically zero or one). */
+  List<String> versions(String group, String module) {
+    Map<String, List<String>> modules = versions.get(group);
+    if (modules == null) {
+      return Collections.emptyList();
+    }
+    return modules.getOrDefault(module, Collections.emptyList());
+  }
+}
@@ -0,0 +1,92 @@
+package com.carrotsearch.gradle.buildinfra.dependencychecks;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.gradle.api.GradleException;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.ModuleIdentifier;
+import org.gradle.api.artifacts.ModuleVersionSelector;
+
+/**
+ * Looks up resolved versions of modules in configurations. Backs the {@code getResolvedVersion} and
+ * {@code getResolvedVersions} project extensions; each configuration is indexed only once.
+ */
+final class ResolvedVersionLookup {
+  /** Resolved version indexes, computed once per configuration. */
+  private final Map<Configuration, ResolvedVersionIndex> indexes = new HashMap<>();
+
+  /** @return The resolved version of a single module. */
+  String version(Configuration configuration, String group, String module) {
+    return version(index(configuration), configuration, group, module);
+  }
+
+  /**
+   * @param modules Modules to look up: {@code group:module} strings, {@link ModuleIdentifier}s or
+   *     {@link ModuleVersionSelector}s.
+   * @return An ordered map of {@code group:module} to resolved version.
+   */
+  Map<String, String> versions(Configuration configuration, Collection<?> modules) {
+    var index = index(configuration);
+    var result = new LinkedHashMap<String, String>();
+    for (Object module : modules) {
+      String[] splits;
+      if (module instanceof ModuleVersionSelector selector) {
+        splits = new String[] {selector.getGroup(), selector.getName()};
+      } else if (module instanceof ModuleIdentifier id) {
+        splits = new String[] {id.getGroup(), id.getName()};
+      } else {
+        splits = groupAndModule(String.valueOf(module));
+      }
+      result.put(splits[0] + ":" + splits[1], version(index, configuration, splits[0], splits[1]));
+    }
+    return result;
+  }
+
+  /** Splits {@code group:module} notation. */
+  static String[] groupAndModule(String groupModulePair) {
+    String[] splits = groupModulePair.split(":");
+    if (splits.length != 2) {
+      throw new GradleException(
+          String.format(Locale.ROOT, "Expected 'group:name' notation: %s", groupModulePair));
+    }
+    return splits;
+  }
+
+  private ResolvedVersionIndex index(Configuration configuration) {
+    synchronized (indexes) {
+      return indexes.computeIfAbsent(configuration, ResolvedVersionIndex::of);
+    }
+  }
+
+  private static String version(
+      ResolvedVersionIndex index, Configuration configuration, String group, String module) {
+    List<String> versions = index.versions(group, module);
+
+    switch (versions.size()) {
+      case 0:
+        throw new GradleException(
+            String.format(
+                Locale.ROOT,
+                "Configuration %s does not contain any reference to %s:%s",
+                configuration.getName(),
+                group,
+                module));
+
+      case 1:
+        return versions.get(0);
+
+      default:
+        throw new GradleException(
+            String.format(
+                Locale.ROOT,
+                "Configuration %s contains multiple modules matching %s:%s",
+                configuration.getName(),
+                group,
+                module));
+    }
+  }
+}
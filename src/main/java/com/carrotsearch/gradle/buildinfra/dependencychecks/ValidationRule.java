@@ -0,0 +1,38 @@
+package com.carrotsearch.gradle.buildinfra.dependencychecks;
+
+import java.util.List;
+
+/**
+ * A validation rule applied to merged dependency groups. Rules do not iterate over dependencies
+ * themselves: {@link DependencyValidator} scans each group once, in sorted order, and passes every
+ * dependency to visitors of all rules.
+ */
+interface ValidationRule {
+  /** @return A short name of this rule, used to label its diagnostics. */
+  String name();
+
+  /**
+   * Creates a visitor for a single configuration group. Visitors of different groups may be used
+   * concurrently, so any state should be kept in the visitor.
+   */
+  GroupVisitor visitGroup(String groupName);
+
+  /** Receives dependencies of a single group. */
+  interface GroupVisitor {
+    /**
+     * Called for each dependency of the group, ordered by group, module and version (dependencies
+     * of the same module are adjacent).
+     */
+    void visit(DependencyInfo dependency);
+
+    /**
+     * Called once, after all dependencies of the group were visited.
+     *
+     * @return Diagnostic messages (an empty list if there are no problems).
+     */
+    List<String> finish();
+  }
+
+  /** A single problem reported by a rule for a configuration group. */
+  record Diagnostic(String group, String rule, String message) {}
+}
@@ -1,14 +1,25 @@
 package com.carrotsearch.gradle.buildinfra.dependencychecks;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import org.gradle.api.file.RegularFile;
 import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.OutputFile;
 import org.gradle.api.tasks.TaskAction;
 
 /**
  * Aggregate several resolved configuration groups and write a lock file, checking dependency sanity
- * along the way.
+ * along the way. An existing lock file with identical content is left untouched.
  */
 public abstract class WriteLockFile extends AbstractLockFileTask {
   public static final String TASK_NAME = "writeLocks";
@@ -17,11 +28,43 @@ public abstract class WriteLockFile extends AbstractLockFileTask {
   @Input
   public abstract Property<String> getLockFileComment();
 
+  /** The lock file written by this task. */
+  @OutputFile
+  public Provider<RegularFile> getLockFileOutput() {
+    return lockFile;
+  }
+
   @TaskAction
   public void action() throws IOException {
     DependencyGroups mergedGroups = getMergedDependencyGroups();
     runValidationChecks(mergedGroups);
 
-    mergedGroups.writeTo(getLockFileComment().getOrElse(""), lockFile.get().getAsFile());
+    long start = System.nanoTime();
+    var buffer = new ByteArrayOutputStream();
+    try (var writer = new OutputStreamWriter(buffer, StandardCharsets.UTF_8)) {
+      mergedGroups.writeTo(getLockFileComment().getOrElse(""), writer);
+    }
+    byte[] content = buffer.toByteArray();
+
+    Path lockFilePath = lockFile.get().getAsFile().toPath();
+    if (hasContent(lockFilePath, content)) {
+      getLogger().info("Lock file content unchanged, not rewriting: {}", lockFilePath);
+    } else {
+      Files.write(lockFilePath, content);
+    }
+    recordPhase(PhaseMetrics.WRITE_LOCK_FILE, start, mergedGroups.size());
+  }
+
+  /** Checks if the file exists and its content digest equals the digest of {@code content}. */
+  private static boolean hasContent(Path file, byte[] content) throws IOException {
+    if (!Files.isRegularFile(file) || Files.size(file) != content.length) {
+      return false;
+    }
+
+    MessageDigest md = DependencyGroups.sha256();
+    try (var is = new DigestInputStream(Files.newInputStream(file), md)) {
+      is.transferTo(OutputStream.nullOutputStream());
+    }
+    return MessageDigest.isEqual(md.digest(), DependencyGroups.sha256().digest(content));
   }
 }
@@ -470,6 +470,712 @@ class DependencyChecksPluginSpec extends AbstractIntegTest {
     gradleVersion << CHECKED_GRADLE_VERSIONS
   }
 
+  def "parallel merge of subproject groups yields the same lock file"() {
+    given:
+    subprojectDir('subproject-a')
+    subprojectDir('subproject-b')
+    subprojectDir('subproject-c')
+
+    settingsFile(
+        """
+        rootProject.name = 'test'
+        include 'subproject-a'
+        include 'subproject-b'
+        include 'subproject-c'
+        """)
+
+    buildFile(
+        """
+        plugins {
+          id 'java-library'
+          id 'com.carrotsearch.gradle.dependencychecks' apply false
+        }
+
+        allprojects {
+            apply plugin: 'java-library'
+            apply plugin: 'com.carrotsearch.gradle.dependencychecks'
+
+            repositories {
+              mavenCentral()
+            }
+
+            dependencyVersionChecks {
+              mergeParallelism = 3
+              configurationGroups {
+                group {
+                  include project.configurations.matching { it.name == "compileClasspath" } 
+                }
+              }
+            }
+        }
+
+        configure(project(":subproject-a")) {
+            dependencies {
+              api "org.slf4j:slf4j-api:2.0.9"
+            }
+        }
+
+        configure(project(":subproject-c")) {
+            dependencies {
+              api "org.slf4j:slf4j-api:2.0.9"
+            }
+        }
+        """)
+
+    when:
+    def result = gradleRunner()
+        .withGradleVersion(gradleVersion)
+        .withArguments(":writeLocks", ":checkLocks")
+        .forwardOutput()
+        .build()
+
+    then:
+    result.task(":writeLocks").outcome == TaskOutcome.SUCCESS
+    result.task(":checkLocks").outcome == TaskOutcome.SUCCESS
+    lockFileEquals(
+        """
+        {
+          "comment" : "",
+          "configurationGroups" : {
+            "group" : {
+              "org.slf4j:slf4j-api:2.0.9" : "9074cb63,refs=2"
+            }
+          },
+          "because" : {
+            "9074cb63" : [
+              {
+                "configuration" : "compileClasspath",
+                "projectPath" : ":subproject-a"
+              },
+              {
+                "configuration" : "compileClasspath",
+                "projectPath" : ":subproject-c"
+              }
+            ]
+          }
+        }
+        """)
+
+    where:
+    gradleVersion << CHECKED_GRADLE_VERSIONS
+  }
+
+  def "resolved groups are aggregated from subprojects applying the plugin"() {
+    given:
+    subprojectDir('subproject-a')
+    subprojectDir('subproject-b')
+
+    settingsFile(
+        """
+        rootProject.name = 'test'
+        include 'subproject-a'
+        include 'subproject-b'
+        """)
+
+    buildFile(
+        """
+        plugins {
+          id 'com.carrotsearch.gradle.dependencychecks'
+        }
+        """)
+
+    new File(testProjectDir, 'subproject-a/build.gradle').setText(
+        """
+        plugins {
+          id 'java-library'
+          id 'com.carrotsearch.gradle.dependencychecks'
+        }
+
+        repositories {
+          mavenCentral()
+        }
+
+        dependencies {
+          api "org.slf4j:slf4j-api:2.0.9"
+        }
+
+        dependencyVersionChecks {
+          configurationGroups {
+            group {
+              include project.configurations.matching { it.name == "compileClasspath" }
+            }
+          }
+        }
+        """.stripIndent(), "UTF-8")
+
+    new File(testProjectDir, 'subproject-b/build.gradle').setText(
+        """
+        plugins {
+          id 'java-library'
+        }
+
+        repositories {
+          mavenCentral()
+        }
+
+        dependencies {
+          api "junit:junit:4.13.2"
+        }
+        """.stripIndent(), "UTF-8")
+
+    when:
+    def result = gradleRunner()
+        .withGradleVersion(gradleVersion)
+        .withArguments(":writeLocks", ":checkLocks")
+        .forwardOutput()
+        .build()
+
+    then:
+    result.task(":subproject-a:resolveConfigurationGroups").outcome == TaskOutcome.SUCCESS
+    result.task(":checkLocks").outcome == TaskOutcome.SUCCESS
+    def lockFile = new File(testProjectDir, "versions.lock").text
+    lockFile.contains('"org.slf4j:slf4j-api:2.0.9"')
+    lockFile.contains('"projectPath" : ":subproject-a"')
+    !lockFile.contains("junit")
+
+    where:
+    gradleVersion << CHECKED_GRADLE_VERSIONS
+  }
+
+  def "subprojects with legacy configurations only are skipped"() {
+    given:
+    subprojectDir('subproject-a')
+    subprojectDir('subproject-b')
+
+    settingsFile(
+        """
+        rootProject.name = 'test'
+        include 'subproject-a'
+        include 'subproject-b'
+        """)
+
+    buildFile(
+        """
+        plugins {
+          id 'com.carrotsearch.gradle.dependencychecks'
+        }
+        """)
+
+    new File(testProjectDir, 'subproject-a/build.gradle').setText(
+        """
+        plugins {
+          id 'java-library'
+          id 'com.carrotsearch.gradle.dependencychecks'
+        }
+
+        repositories {
+          mavenCentral()
+        }
+
+        dependencies {
+          api "org.slf4j:slf4j-api:2.0.9"
+        }
+
+        dependencyVersionChecks {
+          configurationGroups {
+            group {
+              include project.configurations.matching { it.name == "compileClasspath" }
+            }
+          }
+        }
+        """.stripIndent(), "UTF-8")
+
+    // A project without variants falls back to the legacy 'default' configuration.
+    new File(testProjectDir, 'subproject-b/build.gradle').setText(
+        """
+        plugins {
+          id 'base'
+        }
+
+        def zip = tasks.register("zip", Zip) {
+          archiveFileName = "subproject-b.zip"
+          from("build.gradle")
+        }
+
+        artifacts {
+          "default" zip
+        }
+        """.stripIndent(), "UTF-8")
+
+    when:
+    def result = gradleRunner()
+        .withGradleVersion(gradleVersion)
+        .withArguments(":writeLocks", ":checkLocks")
+        .forwardOutput()
+        .build()
+
+    then:
+    result.task(":checkLocks").outcome == TaskOutcome.SUCCESS
+    result.task(":subproject-b:zip") == null
+    def lockFile = new File(testProjectDir, "versions.lock").text
+    lockFile.contains('"projectPath" : ":subproject-a"')
+    !lockFile.contains(":subproject-b")
+
+    where:
+    gradleVersion << CHECKED_GRADLE_VERSIONS
+  }
+
+  def "plugin applied to subprojects only fails"() {
+    given:
+    subprojectDir('subproject-a')
+
+    settingsFile(
+        """
+        rootProject.name = 'test'
+        include 'subproject-a'
+        """)
+
+    buildFile("")
+
+    new File(testProjectDir, 'subproject-a/build.gradle').setText(
+        """
+        plugins {
+          id 'java-library'
+          id 'com.carrotsearch.gradle.dependencychecks'
+        }
+        """.stripIndent(), "UTF-8")
+
+    when:
+    def result = gradleRunner()
+        .withGradleVersion(gradleVersion)
+        .withArguments("help")
+        .forwardOutput()
+        .buildAndFail()
+
+    then:
+    result.output.contains(
+        "The dependency checks plugin is applied to :subproject-a but not to the root project")
+
+    where:
+    gradleVersion << CHECKED_GRADLE_VERSIONS
+  }
+
+  def "lock file tasks work with isolated projects"() {
+    given:
+    subprojectDir('subproject-a')
+    subprojectDir('subproject-b')
+
+    settingsFile(
+        """
+        rootProject.name = 'test'
+        include 'subproject-a'
+        include 'subproject-b'
+        """)
+
+    buildFile(
+        """
+        plugins {
+          id 'com.carrotsearch.gradle.dependencychecks'
+        }
+        """)
+
+    new File(testProjectDir, 'subproject-a/build.gradle').setText(
+        """
+        plugins {
+          id 'java-library'
+          id 'com.carrotsearch.gradle.dependencychecks'
+        }
+
+        repositories {
+          mavenCentral()
+        }
+
+        dependencies {
+          api "org.slf4j:slf4j-api:2.0.9"
+        }
+
+        dependencyVersionChecks {
+          configurationGroups {
+            group {
+              include project.configurations.matching { it.name == "compileClasspath" }
+            }
+          }
+        }
+        """.stripIndent(), "UTF-8")
+
+    new File(testProjectDir, 'subproject-b/build.gradle').setText(
+        """
+        plugins {
+          id 'base'
+        }
+        """.stripIndent(), "UTF-8")
+
+    when:
+    def result = gradleRunner()
+        .withGradleVersion(gradleVersion)
+        .withArguments(":writeLocks", ":checkLocks", "-Dorg.gradle.unsafe.isolated-projects=true")
+        .forwardOutput()
+        .build()
+
+    then:
+    result.task(":subproject-a:resolveConfigurationGroups").outcome == TaskOutcome.SUCCESS
+    result.task(":checkLocks").outcome == TaskOutcome.SUCCESS
+    result.output.contains("Configuration cache entry stored.")
+    def lockFile = new File(testProjectDir, "versions.lock").text
+    lockFile.contains('"projectPath" : ":subproject-a"')
+
+    where:
+    gradleVersion << CHECKED_GRADLE_VERSIONS
+  }
+
+  def "checkLocks re-reads only changed subproject groups"() {
+    given:
+    subprojectDir('subproject-a')
+    subprojectDir('subproject-b')
+
+    settingsFile(
+        """
+        rootProject.name = 'test'
+        include 'subproject-a'
+        include 'subproject-b'
+        """)
+
+    def buildScript = { String subprojectBDependencies ->
+      """
+      plugins {
+        id 'java-library'
+        id 'com.carrotsearch.gradle.dependencychecks' apply false
+      }
+
+      allprojects {
+          apply plugin: 'java-library'
+          apply plugin: 'com.carrotsearch.gradle.dependencychecks'
+
+          repositories {
+            mavenCentral()
+          }
+
+          dependencyVersionChecks {
+            configurationGroups {
+              group {
+                include project.configurations.matching { it.name == "compileClasspath" }
+              }
+            }
+          }
+      }
+
+      configure(project(":subproject-a")) {
+          dependencies {
+            api "org.slf4j:slf4j-api:2.0.9"
+          }
+      }
+
+      configure(project(":subproject-b")) {
+          dependencies {
+            ${subprojectBDependencies}
+          }
+      }
+      """
+    }
+
+    buildFile(buildScript(""))
+    gradleRunner()
+        .withGradleVersion(gradleVersion)
+        .withArguments(":writeLocks", ":checkLocks")
+        .forwardOutput()
+        .build()
+
+    when:
+    buildFile(buildScript('api "org.slf4j:slf4j-api:2.0.9"'))
+    def result = gradleRunner()
+        .withGradleVersion(gradleVersion)
+        .withArguments(":checkLocks", "--info")
+        .forwardOutput()
+        .buildAndFail()
+
+    then:
+    result.task(":subproject-a:resolveConfigurationGroups").outcome == TaskOutcome.UP_TO_DATE
+    result.output.contains("Merged 1 changed resolved configuration group file(s) incrementally.")
+    containsLines(result.output,
+        """
+        - org.slf4j:slf4j-api:2.0.9 (dependency sources different)
+        """)
+    containsLines(result.output,
+        """
+        Configuration compileClasspath in :subproject-b (new source)
+        """)
+
+    where:
+    gradleVersion << CHECKED_GRADLE_VERSIONS
+  }
+
+  def "checkLocks recovers from a failure while reading changed inputs"() {
+    given:
+    buildFile(
+        """
+        plugins {
+          id 'com.carrotsearch.gradle.dependencychecks'
+        }
+
+        dependencyVersionChecks {
+          configurationGroups {
+          }
+        }
+
+        tasks.matching { it.name in ["writeLocks", "checkLocks"] }.configureEach {
+          resolvedConfigurationGroups.from("extra.bin")
+        }
+        """)
+
+    def extraFile = new File(testProjectDir, "extra.bin")
+    def groups = new DependencyGroups()
+    groups.addOrMerge("group", new DependencyInfo("org.slf4j:slf4j-api:2.0.9",
+        [
+          new DependencySource("compileClasspath", ":extra")
+        ]))
+    groups.writeBinaryTo(extraFile)
+
+    gradleRunner()
+        .withGradleVersion(gradleVersion)
+        .withArguments(":writeLocks", ":checkLocks")
+        .forwardOutput()
+        .build()
+
+    extraFile.bytes = Arrays.copyOf(extraFile.bytes, 5)
+    gradleRunner()
+        .withGradleVersion(gradleVersion)
+        .withArguments(":checkLocks")
+        .forwardOutput()
+        .buildAndFail()
+
+    when:
+    new DependencyGroups().writeBinaryTo(extraFile)
+    def result = gradleRunner()
+        .withGradleVersion(gradleVersion)
+        .withArguments(":checkLocks", "--info")
+        .forwardOutput()
+        .buildAndFail()
+
+    then:
+    !result.output.contains("Checking dependencies affected by changed inputs only.")
+    result.output.contains("Dependencies are inconsistent with the lockfile.")
+    containsLines(result.output,
+        """
+        - org.slf4j:slf4j-api:2.0.9 (only in lockfile, no longer used)
+        """)
+
+    where:
+    gradleVersion << CHECKED_GRADLE_VERSIONS
+  }
+
+  def "writeLocks is up-to-date when nothing changed"() {
+    given:
+    buildFile(
+        """
+        plugins {
+          id 'java-library'
+          id 'com.carrotsearch.gradle.dependencychecks'
+        }
+
+        repositories {
+          mavenCentral()
+        }
+
+        dependencies {
+          api "org.slf4j:slf4j-api:2.0.9"
+        }
+
+        dependencyVersionChecks {
+          configurationGroups {
+            group {
+              include project.configurations.matching { it.name == "compileClasspath" }
+            }
+          }
+        }
+        """)
+
+    when:
+    def result = gradleRunner()
+        .withGradleVersion(gradleVersion)
+        .withArguments("writeLocks")
+        .forwardOutput()
+        .build()
+
+    def rerun = gradleRunner()
+        .withGradleVersion(gradleVersion)
+        .withArguments("writeLocks")
+        .forwardOutput()
+        .build()
+
+    then:
+    result.task(":writeLocks").outcome == TaskOutcome.SUCCESS
+    rerun.task(":writeLocks").outcome == TaskOutcome.UP_TO_DATE
+
+    where:
+    gradleVersion << CHECKED_GRADLE_VERSIONS
+  }
+
+  def "writeLocks leaves an unchanged lock file untouched"() {
+    given:
+    buildFile(
+        """
+        plugins {
+          id 'java-library'
+          id 'com.carrotsearch.gradle.dependencychecks'
+        }
+
+        repositories {
+          mavenCentral()
+        }
+
+        dependencies {
+          api "org.slf4j:slf4j-api:2.0.9"
+        }
+
+        dependencyVersionChecks {
+          configurationGroups {
+            group {
+              include project.configurations.matching { it.name == "compileClasspath" }
+            }
+          }
+        }
+        """)
+
+    gradleRunner()
+        .withGradleVersion(gradleVersion)
+        .withArguments("writeLocks")
+        .forwardOutput()
+        .build()
+
+    def lockFile = new File(testProjectDir, "versions.lock")
+    def lastModified = lockFile.lastModified() - 60_000
+    lockFile.setLastModified(lastModified)
+
+    when:
+    def result = gradleRunner()
+        .withGradleVersion(gradleVersion)
+        .withArguments("writeLocks", "--rerun-tasks", "--info")
+        .forwardOutput()
+        .build()
+
+    then:
+    result.task(":writeLocks").outcome == TaskOutcome.SUCCESS
+    result.output.contains("Lock file content unchanged, not rewriting")
+    lockFile.lastModified() == lastModified
+
+    where:
+    gradleVersion << CHECKED_GRADLE_VERSIONS
+  }
+
+  def "lock file tasks are configuration cache compatible"() {
+    given:
+    buildFile(
+        """
+        plugins {
+          id 'java-library'
+          id 'com.carrotsearch.gradle.dependencychecks'
+        }
+
+        repositories {
+          mavenCentral()
+        }
+
+        dependencies {
+          api "org.slf4j:slf4j-api:2.0.9"
+        }
+
+        dependencyVersionChecks {
+          configurationGroups {
+            group {
+              include project.configurations.matching { it.name == "compileClasspath" } 
+            }
+          }
+        }
+        """)
+
+    when:
+    gradleRunner()
+        .withGradleVersion(gradleVersion)
+        .withArguments(":writeLocks", "--configuration-cache")
+        .forwardOutput()
+        .build()
+
+    def result = gradleRunner()
+        .withGradleVersion(gradleVersion)
+        .withArguments(":checkLocks", "--configuration-cache")
+        .forwardOutput()
+        .build()
+
+    def rerun = gradleRunner()
+        .withGradleVersion(gradleVersion)
+        .withArguments(":checkLocks", "--configuration-cache")
+        .forwardOutput()
+        .build()
+
+    then:
+    result.task(":checkLocks").outcome == TaskOutcome.SUCCESS
+    rerun.task(":checkLocks").outcome == TaskOutcome.UP_TO_DATE
+    rerun.output.contains("Configuration cache entry reused.")
+
+    where:
+    gradleVersion << CHECKED_GRADLE_VERSIONS
+  }
+
+  def "checkLocks is taken from the build cache"() {
+    given:
+    settingsFile(
+        """
+        rootProject.name = 'test'
+        buildCache {
+          local {
+            directory = new File(rootDir, 'build-cache')
+          }
+        }
+        """)
+
+    buildFile(
+        """
+        plugins {
+          id 'java-library'
+          id 'com.carrotsearch.gradle.dependencychecks'
+        }
+
+        repositories {
+          mavenCentral()
+        }
+
+        dependencies {
+          api "org.slf4j:slf4j-api:2.0.9"
+        }
+
+        dependencyVersionChecks {
+          configurationGroups {
+            group {
+              include project.configurations.matching { it.name == "compileClasspath" }
+            }
+          }
+        }
+        """)
+
+    gradleRunner()
+        .withGradleVersion(gradleVersion)
+        .withArguments(":writeLocks")
+        .forwardOutput()
+        .build()
+
+    when:
+    def result = gradleRunner()
+        .withGradleVersion(gradleVersion)
+        .withArguments(":checkLocks", "--build-cache")
+        .forwardOutput()
+        .build()
+
+    new File(testProjectDir, "build").deleteDir()
+
+    def rerun = gradleRunner()
+        .withGradleVersion(gradleVersion)
+        .withArguments(":checkLocks", "--build-cache")
+        .forwardOutput()
+        .build()
+
+    then:
+    result.task(":checkLocks").outcome == TaskOutcome.SUCCESS
+    rerun.task(":checkLocks").outcome == TaskOutcome.FROM_CACHE
+
+    where:
+    gradleVersion << CHECKED_GRADLE_VERSIONS
+  }
+
   def "should succeed on --write-locks without writeLocks"() {
     given:
     buildFile(
@@ -535,4 +1241,316 @@ class DependencyChecksPluginSpec extends AbstractIntegTest {
     where:
     gradleVersion << CHECKED_GRADLE_VERSIONS
   }
+
+  def "resolved groups are kept in memory only if in-memory handoff is enabled"() {
+    given:
+    buildFile(
+        """
+        plugins {
+          id 'java-library'
+          id 'com.carrotsearch.gradle.dependencychecks'
+        }
+
+        repositories {
+          mavenCentral()
+        }
+
+        dependencies {
+          api "org.slf4j:slf4j-api:2.0.9"
+        }
+
+        dependencyVersionChecks {
+          inMemoryHandoff = ${inMemoryHandoff}
+          configurationGroups {
+            group1 {
+              include project.configurations.matching { it.name == "compileClasspath" }
+            }
+          }
+        }
+        """)
+
+    when:
+    def result = gradleRunner()
+        .withGradleVersion(gradleVersion)
+        .withArguments(":writeLocks", "--info")
+        .forwardOutput()
+        .build()
+
+    then:
+    result.task(":writeLocks").outcome == TaskOutcome.SUCCESS
+    result.output.contains("Registered in-memory resolved groups") == inMemoryHandoff
+    // Lock file tasks release groups once merged.
+    !result.output.contains("In-memory resolved groups not used by lock file tasks")
+
+    where:
+    [gradleVersion, inMemoryHandoff] << [
+      CHECKED_GRADLE_VERSIONS,
+      [false, true]
+    ].combinations()
+  }
+
+  def "configurations are not resolved unless lock file tasks run"() {
+    given:
+    buildFile(
+        """
+        plugins {
+          id 'java-library'
+          id 'com.carrotsearch.gradle.dependencychecks'
+        }
+
+        configurations.configureEach { conf ->
+          conf.incoming.beforeResolve { println "Resolving: " + conf.name }
+        }
+
+        dependencyVersionChecks {
+          configurationGroups {
+            group1 {
+              include project.configurations.matching { it.name == "compileClasspath" }
+            }
+          }
+        }
+        """)
+
+    when:
+    def result = gradleRunner()
+        .withGradleVersion(gradleVersion)
+        .withArguments(":help")
+        .forwardOutput()
+        .build()
+
+    then:
+    !result.output.contains("Resolving: ")
+
+    when:
+    result = gradleRunner()
+        .withGradleVersion(gradleVersion)
+        .withArguments(":writeLocks")
+        .forwardOutput()
+        .build()
+
+    then:
+    result.output.contains("Resolving: compileClasspath")
+
+    where:
+    gradleVersion << CHECKED_GRADLE_VERSIONS
+  }
+
+  def "phase metrics report is written when enabled"() {
+    given:
+    buildFile(
+        """
+        plugins {
+          id 'java-library'
+          id 'com.carrotsearch.gradle.dependencychecks'
+        }
+
+        dependencyVersionChecks {
+          phaseMetrics = true
+          configurationGroups {
+            group1 {
+              include project.configurations.matching { it.name == "compileClasspath" }
+            }
+          }
+        }
+        """)
+
+    when:
+    def result = gradleRunner()
+        .withGradleVersion(gradleVersion)
+        .withArguments(":writeLocks", ":checkLocks")
+        .forwardOutput()
+        .build()
+
+    then:
+    result.task(":checkLocks").outcome == TaskOutcome.SUCCESS
+    result.output.contains("Slowest subprojects:")
+    def report = new File(testProjectDir, "build/reports/dependency-checks/metrics.json").text
+    ["collect", "writeResolved", "merge", "validate", "writeLockFile", "readLockFile", "digest"].every {
+      report.contains("\"phase\" : \"${it}\"")
+    }
+    // Digests match, so nothing is compared.
+    !report.contains("\"phase\" : \"compare\"")
+
+    when:
+    lockFile(
+        """
+        {
+          "comment" : "",
+          "configurationGroups" : {
+            "group1" : {
+              "org.slf4j:slf4j-api:2.0.9" : "S000,refs=1"
+            }
+          },
+          "because" : {
+            "S000" : [
+              {
+                "configuration" : "compileClasspath",
+                "projectPath" : ":"
+              }
+            ]
+          }
+        }
+        """)
+    result = gradleRunner()
+        .withGradleVersion(gradleVersion)
+        .withArguments(":checkLocks")
+        .forwardOutput()
+        .buildAndFail()
+
+    then:
+    result.output.contains("Dependencies are inconsistent with the lockfile.")
+    def mismatchReport =
+        new File(testProjectDir, "build/reports/dependency-checks/metrics.json").text
+    ["merge", "readLockFile", "digest", "compare"].every {
+      mismatchReport.contains("\"phase\" : \"${it}\"")
+    }
+    !mismatchReport.contains("\"phase\" : \"writeLockFile\"")
+
+    where:
+    gradleVersion << CHECKED_GRADLE_VERSIONS
+  }
+
+  def "reports are written to the root project's build directory"() {
+    given:
+    buildFile(
+        """
+        plugins {
+          id 'java-library'
+          id 'com.carrotsearch.gradle.dependencychecks'
+        }
+
+        layout.buildDirectory = file("out")
+
+        dependencyVersionChecks {
+          phaseMetrics = true
+          configurationGroups {
+            group1 {
+              include project.configurations.matching { it.name == "compileClasspath" }
+            }
+          }
+        }
+        """)
+
+    when:
+    gradleRunner()
+        .withGradleVersion(gradleVersion)
+        .withArguments(":writeLocks")
+        .forwardOutput()
+        .build()
+
+    then:
+    new File(testProjectDir, "out/reports/dependency-checks/metrics.json").isFile()
+    !new File(testProjectDir, "build/reports/dependency-checks/metrics.json").exists()
+
+    where:
+    gradleVersion << CHECKED_GRADLE_VERSIONS
+  }
+
+  def "identical resolved graphs are reported when enabled"() {
+    given:
+    buildFile(
+        """
+        plugins {
+          id 'java-library'
+          id 'com.carrotsearch.gradle.dependencychecks'
+        }
+
+        repositories {
+          mavenCentral()
+        }
+
+        dependencies {
+          api "org.slf4j:slf4j-api:2.0.9"
+          testImplementation "junit:junit:4.13.2"
+        }
+
+        dependencyVersionChecks {
+          redundancyReport = true
+          configurationGroups {
+            group1 {
+              include project.configurations.matching { it.name in [ "compileClasspath", "runtimeClasspath", "testCompileClasspath" ] }
+            }
+          }
+        }
+        """)
+
+    when:
+    def result = gradleRunner()
+        .withGradleVersion(gradleVersion)
+        .withArguments(":writeLocks")
+        .forwardOutput()
+        .build()
+
+    then:
+    result.task(":writeLocks").outcome == TaskOutcome.SUCCESS
+    result.output.contains("Found 1 set(s) of configurations with identical resolved graphs")
+
+    def report = new groovy.json.JsonSlurper().parse(
+        new File(testProjectDir, "build/reports/dependency-checks/identical-graphs.json"))
+    report.identicalGraphs.size() == 1
+    report.identicalGraphs[0].modules == 1
+    report.identicalGraphs[0].configurations*.configuration == [
+      "compileClasspath",
+      "runtimeClasspath"
+    ]
+    report.skippedProjects == []
+
+    where:
+    gradleVersion << CHECKED_GRADLE_VERSIONS
+  }
+
+  def "projects of resolution tasks that did not execute are listed in the report"() {
+    given:
+    buildFile(
+        """
+        plugins {
+          id 'java-library'
+          id 'com.carrotsearch.gradle.dependencychecks'
+        }
+
+        repositories {
+          mavenCentral()
+        }
+
+        dependencies {
+          api "org.slf4j:slf4j-api:2.0.9"
+        }
+
+        dependencyVersionChecks {
+          redundancyReport = true
+          configurationGroups {
+            group1 {
+              include project.configurations.matching { it.name in [ "compileClasspath", "runtimeClasspath" ] }
+            }
+          }
+        }
+        """)
+
+    def reportFile = new File(testProjectDir, "build/reports/dependency-checks/identical-graphs.json")
+    gradleRunner()
+        .withGradleVersion(gradleVersion)
+        .withArguments(":writeLocks", "--configuration-cache")
+        .forwardOutput()
+        .build()
+    reportFile.delete()
+
+    when:
+    def result = gradleRunner()
+        .withGradleVersion(gradleVersion)
+        .withArguments(":writeLocks", "--configuration-cache")
+        .forwardOutput()
+        .build()
+
+    then:
+    result.task(":resolveConfigurationGroups").outcome == TaskOutcome.UP_TO_DATE
+    result.output.contains("Configuration cache entry reused.")
+    result.output.contains("Resolved graphs of 1 project(s) were not collected")
+
+    def report = new groovy.json.JsonSlurper().parse(reportFile)
+    report.identicalGraphs == []
+    report.skippedProjects == [":"]
+
+    where:
+    gradleVersion << CHECKED_GRADLE_VERSIONS
+  }
 }
\ No newline at end of file
@@ -0,0 +1,60 @@
+package com.carrotsearch.gradle.buildinfra.dependencychecks
+
+import java.lang.ref.WeakReference
+import spock.lang.Specification
+
+class DependencyCoordinatesSpec extends Specification {
+  def "identical coordinates share a single instance"() {
+    expect:
+    DependencyCoordinates.parse("org.slf4j:slf4j-api:2.0.9").is(
+        DependencyCoordinates.of("org.slf4j", "slf4j-api", "2.0.9"))
+  }
+
+  def "unreferenced coordinates are not retained by the interner"() {
+    given:
+    def ref = new WeakReference(
+        DependencyCoordinates.of("org.example", "unreferenced-" + UUID.randomUUID(), "1.0"))
+
+    when:
+    for (int i = 0; i < 50 && ref.get() != null; i++) {
+      System.gc()
+      Thread.sleep(10)
+    }
+
+    then:
+    ref.get() == null
+  }
+
+  def "ordering is the same as comparing group:module strings, then versions"() {
+    given:
+    def coordinates = [
+      "org.apache:foo:1",
+      "org.apache.lucene:foo:1",
+      "org.apache:foo-bar:1",
+      "org.apache:foo:2",
+      "a:b:1",
+      "a.b:a:1",
+      "a:b.c:1",
+      "a-b:c:1",
+      "ab:c:1"
+    ].collect { DependencyCoordinates.parse(it) }
+
+    def expected = coordinates.toSorted { a, b ->
+      a.idWithoutVersion() <=> b.idWithoutVersion() ?: a.version() <=> b.version()
+    }
+
+    expect:
+    coordinates.toSorted(DependencyCoordinates.COMPARE_BY_GROUP_MODULE_THEN_VERSION) == expected
+  }
+
+  def "malformed coordinates are rejected"() {
+    when:
+    DependencyCoordinates.parse(coords)
+
+    then:
+    thrown(RuntimeException)
+
+    where:
+    coords << ["foo", "foo:bar", "foo:bar:baz:qux"]
+  }
+}
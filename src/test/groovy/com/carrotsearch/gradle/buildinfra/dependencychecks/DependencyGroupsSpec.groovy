@@ -0,0 +1,428 @@
+package com.carrotsearch.gradle.buildinfra.dependencychecks
+
+import org.gradle.api.GradleException
+import spock.lang.Specification
+import spock.lang.TempDir
+
+class DependencyGroupsSpec extends Specification {
+  @TempDir
+  protected File tempDir
+
+  def "lock files are read back regardless of source keys and field order"() {
+    given:
+    def file = lockFile(content)
+
+    expect:
+    serialize(DependencyGroups.readFrom(file)) == expected.stripIndent().trim()
+
+    where:
+    content << [
+      """
+      {
+        "comment" : "",
+        "configurationGroups" : { },
+        "because" : { }
+      }
+      """,
+      """
+      {
+        "comment" : "Some comment.",
+        "configurationGroups" : {
+          "group1" : {
+            "org.slf4j:slf4j-api:2.0.9" : "S000,refs=1"
+          },
+          "group2" : {
+            "junit:junit:4.13.2" : "S001,refs=2",
+            "org.hamcrest:hamcrest-core:1.3" : "S001,refs=2",
+            "org.slf4j:slf4j-api:2.0.9" : "S000,refs=1"
+          }
+        },
+        "because" : {
+          "S000" : [
+            {
+              "configuration" : "compileClasspath",
+              "projectPath" : ":"
+            }
+          ],
+          "S001" : [
+            {
+              "configuration" : "compileClasspath",
+              "projectPath" : ":foo"
+            },
+            {
+              "configuration" : "testCompileClasspath",
+              "projectPath" : ":bar"
+            }
+          ]
+        }
+      }
+      """,
+      """
+      {
+        "because" : {
+          "S000" : [
+            {
+              "configuration" : "runtimeClasspath",
+              "projectPath" : ":"
+            }
+          ]
+        },
+        "configurationGroups" : {
+          "group" : {
+            "org.slf4j:slf4j-api:2.0.9" : "S000,ref=1"
+          }
+        }
+      }
+      """
+    ]
+
+    expected << [
+      """
+      {
+        "comment" : "",
+        "configurationGroups" : { },
+        "because" : { }
+      }
+      """,
+      """
+      {
+        "comment" : "",
+        "configurationGroups" : {
+          "group1" : {
+            "org.slf4j:slf4j-api:2.0.9" : "4ab9f4ef,refs=1"
+          },
+          "group2" : {
+            "junit:junit:4.13.2" : "d34d40dc,refs=2",
+            "org.hamcrest:hamcrest-core:1.3" : "d34d40dc,refs=2",
+            "org.slf4j:slf4j-api:2.0.9" : "4ab9f4ef,refs=1"
+          }
+        },
+        "because" : {
+          "4ab9f4ef" : [
+            {
+              "configuration" : "compileClasspath",
+              "projectPath" : ":"
+            }
+          ],
+          "d34d40dc" : [
+            {
+              "configuration" : "compileClasspath",
+              "projectPath" : ":foo"
+            },
+            {
+              "configuration" : "testCompileClasspath",
+              "projectPath" : ":bar"
+            }
+          ]
+        }
+      }
+      """,
+      """
+      {
+        "comment" : "",
+        "configurationGroups" : {
+          "group" : {
+            "org.slf4j:slf4j-api:2.0.9" : "371d6054,refs=1"
+          }
+        },
+        "because" : {
+          "371d6054" : [
+            {
+              "configuration" : "runtimeClasspath",
+              "projectPath" : ":"
+            }
+          ]
+        }
+      }
+      """
+    ]
+  }
+
+  def "lock file layout is stable"() {
+    given:
+    def groups = new DependencyGroups()
+    groups.addOrMerge("group2", new DependencyInfo("junit:junit:4.13.2",
+        [
+          new DependencySource("testCompileClasspath", ":")
+        ]))
+    groups.addOrMerge("group2", new DependencyInfo("org.slf4j:slf4j-api:2.0.9",
+        [
+          new DependencySource("compileClasspath", ":a")
+        ]))
+    groups.addOrMerge("group2", new DependencyInfo("org.slf4j:slf4j-api:2.0.9",
+        [
+          new DependencySource("compileClasspath", ":b")
+        ]))
+    groups.addOrMerge("group1", new DependencyInfo("org.slf4j:slf4j-api:2.0.9",
+        [
+          new DependencySource("compileClasspath", ":a")
+        ]))
+
+    when:
+    def written = new StringWriter()
+    groups.writeTo(comment, written)
+
+    then:
+    written.toString() == """
+        {
+          "comment" : "${escapedComment}",
+          "configurationGroups" : {
+            "group1" : {
+              "org.slf4j:slf4j-api:2.0.9" : "4ab9fc1c,refs=1"
+            },
+            "group2" : {
+              "junit:junit:4.13.2" : "c34b667d,refs=1",
+              "org.slf4j:slf4j-api:2.0.9" : "573f8362,refs=2"
+            }
+          },
+          "because" : {
+            "4ab9fc1c" : [
+              {
+                "configuration" : "compileClasspath",
+                "projectPath" : ":a"
+              }
+            ],
+            "573f8362" : [
+              {
+                "configuration" : "compileClasspath",
+                "projectPath" : ":a"
+              },
+              {
+                "configuration" : "compileClasspath",
+                "projectPath" : ":b"
+              }
+            ],
+            "c34b667d" : [
+              {
+                "configuration" : "testCompileClasspath",
+                "projectPath" : ":"
+              }
+            ]
+          }
+        }
+        """.stripIndent().trim()
+
+    where:
+    comment                             | escapedComment
+    ""                                  | ""
+    'Lock file comment with "quotes".'  | 'Lock file comment with \\"quotes\\".'
+  }
+
+  def "binary resolved groups file round-trips"() {
+    given:
+    def groups = new DependencyGroups()
+    groups.addOrMerge("group", new DependencyInfo("org.slf4j:slf4j-api:2.0.9",
+        [
+          new DependencySource("compileClasspath", ":a"),
+          new DependencySource("runtimeClasspath", ":a")
+        ]))
+    groups.addOrMerge("group", new DependencyInfo("junit:junit:4.13.2",
+        [
+          new DependencySource("testCompileClasspath", ":")
+        ]))
+    groups.addOrMerge("other", new DependencyInfo("org.slf4j:slf4j-api:2.0.9",
+        [
+          new DependencySource("compileClasspath", ":b")
+        ]))
+    def file = new File(tempDir, "resolved.bin")
+
+    when:
+    groups.writeBinaryTo(file)
+
+    then:
+    serialize(DependencyGroups.readBinaryFrom(file)) == serialize(groups)
+  }
+
+  def "binary reader rejects other files"() {
+    given:
+    def file = lockFile("{}")
+
+    when:
+    DependencyGroups.readBinaryFrom(file)
+
+    then:
+    thrown(GradleException)
+  }
+
+  def "merging does not duplicate dependency sources"() {
+    given:
+    def groups = new DependencyGroups()
+    def other = new DependencyGroups()
+    other.addOrMerge("group", new DependencyInfo("org.slf4j:slf4j-api:2.0.9",
+        [
+          new DependencySource("compileClasspath", ":a"),
+          new DependencySource("runtimeClasspath", ":a")
+        ]))
+
+    when:
+    groups.merge(other)
+    groups.merge(other)
+
+    then:
+    groups.getIfExists("group", DependencyCoordinates.parse("org.slf4j:slf4j-api:2.0.9"))
+        .sources.toList() == [
+          new DependencySource("compileClasspath", ":a"),
+          new DependencySource("runtimeClasspath", ":a")
+        ]
+  }
+
+  def "streaming reader rejects unknown properties"() {
+    given:
+    def file = lockFile(
+        """
+        {
+          "comment" : "",
+          "unknown" : { },
+          "configurationGroups" : { },
+          "because" : { }
+        }
+        """)
+
+    when:
+    DependencyGroups.readFrom(file)
+
+    then:
+    thrown(GradleException)
+  }
+
+  def "lock file digests are computed from the parsed content"() {
+    given:
+    def groups = new DependencyGroups()
+    groups.addOrMerge("group1", new DependencyInfo("org.slf4j:slf4j-api:2.0.9",
+        [new DependencySource("compileClasspath", ":a")]))
+    groups.addOrMerge("group2", new DependencyInfo("junit:junit:4.13.2",
+        [new DependencySource("testCompileClasspath", ":a")]))
+    def file = new File(tempDir, "versions.lock")
+    groups.writeTo("", file)
+
+    when:
+    def fromLockFile = DependencyGroups.readFrom(file)
+
+    then:
+    !file.text.contains("digest")
+    fromLockFile.digest() == groups.digest()
+    fromLockFile.groupDigests() == groups.groupDigests()
+
+    when:
+    file.text = file.text.replace("2.0.9", "2.0.10")
+
+    then:
+    DependencyGroups.readFrom(file).groupDigests().group1 != groups.groupDigests().group1
+    DependencyGroups.readFrom(file).groupDigests().group2 == groups.groupDigests().group2
+  }
+
+  def "empty groups are read back but do not affect digests"() {
+    given:
+    def file = lockFile(
+        """
+        {
+          "comment" : "",
+          "configurationGroups" : {
+            "group1" : { },
+            "group2" : {
+              "org.slf4j:slf4j-api:2.0.9" : "S000,refs=1"
+            }
+          },
+          "because" : {
+            "S000" : [
+              {
+                "configuration" : "compileClasspath",
+                "projectPath" : ":"
+              }
+            ]
+          }
+        }
+        """)
+    def expected = new DependencyGroups()
+    expected.addOrMerge("group2", new DependencyInfo("org.slf4j:slf4j-api:2.0.9",
+        [new DependencySource("compileClasspath", ":")]))
+
+    when:
+    def groups = DependencyGroups.readFrom(file)
+
+    then:
+    groups.getDependencies().keySet() == ["group1", "group2"] as Set
+    groups.getDependencies().group1.isEmpty()
+    groups.groupDigests() == expected.groupDigests()
+  }
+
+  def "group digests depend on group content only"() {
+    given:
+    def a = new DependencyGroups()
+    a.addOrMerge("group1", new DependencyInfo("org.slf4j:slf4j-api:2.0.9",
+        [new DependencySource("compileClasspath", ":a")]))
+    a.addOrMerge("group2", new DependencyInfo("junit:junit:4.13.2",
+        [new DependencySource("testCompileClasspath", ":a")]))
+
+    def b = new DependencyGroups(a.getDependencies())
+    b.addOrMerge("group2", new DependencyInfo("junit:junit:4.13.2",
+        [new DependencySource("testCompileClasspath", ":b")]))
+
+    expect:
+    a.digest() != b.digest()
+    a.groupDigests().group1 == b.groupDigests().group1
+    a.groupDigests().group2 != b.groupDigests().group2
+    CheckLocks.compare(b, a, { it == "group1" }).isEmpty()
+    CheckLocks.compare(b, a).keySet() == ["group2"] as Set
+  }
+
+  def "subtracting merged groups restores the original"() {
+    given:
+    def a = new DependencyGroups()
+    a.addOrMerge("group", new DependencyInfo("org.slf4j:slf4j-api:2.0.9",
+        [new DependencySource("compileClasspath", ":a")]))
+    def b = new DependencyGroups()
+    b.addOrMerge("group", new DependencyInfo("org.slf4j:slf4j-api:2.0.9",
+        [new DependencySource("compileClasspath", ":b")]))
+    b.addOrMerge("group", new DependencyInfo("junit:junit:4.13.2",
+        [new DependencySource("compileClasspath", ":b")]))
+    b.addOrMerge("other", new DependencyInfo("junit:junit:4.13.2",
+        [new DependencySource("testCompileClasspath", ":b")]))
+
+    def merged = new DependencyGroups(a.getDependencies())
+    merged.merge(b)
+
+    when:
+    merged.subtract(b)
+
+    then:
+    serialize(merged) == serialize(a)
+    merged.getDependencies().keySet() == ["group"] as Set
+  }
+
+  def "selecting modules copies all of their versions"() {
+    given:
+    def groups = new DependencyGroups()
+    [
+      "org.slf4j:slf4j-api:2.0.8",
+      "org.slf4j:slf4j-api:2.0.9",
+      "org.slf4j:slf4j-simple:2.0.9",
+      "junit:junit:4.13.2"
+    ].each {
+      groups.addOrMerge("group", new DependencyInfo(it,
+          [new DependencySource("compileClasspath", ":a")]))
+    }
+
+    when:
+    def selected = groups.selectModules(
+        ["group": [DependencyCoordinates.parse("org.slf4j:slf4j-api:2.0.9")]])
+
+    then:
+    selected.getDependencies()["group"]*.id() == [
+      "org.slf4j:slf4j-api:2.0.8",
+      "org.slf4j:slf4j-api:2.0.9"
+    ]
+  }
+
+  private File lockFile(String content) {
+    def file = new File(tempDir, "versions.lock")
+    file.setText(content.stripIndent().trim(), "UTF-8")
+    return file
+  }
+
+  private static String serialize(DependencyGroups groups) {
+    def sw = new StringWriter()
+    groups.writeTo("", sw)
+    return sw.toString()
+  }
+}
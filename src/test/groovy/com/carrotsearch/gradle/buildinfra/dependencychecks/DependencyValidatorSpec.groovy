@@ -0,0 +1,78 @@
+package com.carrotsearch.gradle.buildinfra.dependencychecks
+
+import spock.lang.Specification
+
+class DependencyValidatorSpec extends Specification {
+  def "inconsistent versions are reported for each group"() {
+    given:
+    def groups = new DependencyGroups()
+    add(groups, "b-group", "org.slf4j:slf4j-api:2.0.8", ":b")
+    add(groups, "b-group", "org.slf4j:slf4j-api:2.0.9", ":a")
+    add(groups, "b-group", "org.slf4j:slf4j-simple:2.0.9", ":a")
+    add(groups, "a-group", "junit:junit:4.12", ":a")
+    add(groups, "a-group", "junit:junit:4.13.2", ":b")
+    add(groups, "c-group", "junit:junit:4.13.2", ":c")
+
+    when:
+    def diagnostics = DependencyValidator.defaultRules().validate(groups, 1)
+
+    then:
+    diagnostics*.group == ["a-group", "b-group"]
+    diagnostics*.rule == ["consistentVersions", "consistentVersions"]
+    diagnostics[1].message.normalize() == """\
+      Multiple versions of the same dependency found in group 'b-group':
+
+        1) org.slf4j:slf4j-api
+             - version 2.0.8 used by:
+                 Configuration compileClasspath in :b
+             - version 2.0.9 used by:
+                 Configuration compileClasspath in :a
+           more insight into these dependencies:
+             gradlew :b:dependencyInsight --dependency "org.slf4j:slf4j-api" --configuration "compileClasspath"
+             gradlew :a:dependencyInsight --dependency "org.slf4j:slf4j-api" --configuration "compileClasspath"
+
+      """.stripIndent()
+  }
+
+  def "parallel validation yields diagnostics in the same order"() {
+    given:
+    def rule = new ValidationRule() {
+          String name() {
+            "everything"
+          }
+
+          ValidationRule.GroupVisitor visitGroup(String groupName) {
+            def ids = []
+            return new ValidationRule.GroupVisitor() {
+                  void visit(DependencyInfo dependency) {
+                    ids << dependency.id()
+                  }
+
+                  List<String> finish() {
+                    return ids
+                  }
+                }
+          }
+        }
+
+    def groups = new DependencyGroups()
+    (0..<50).each { g ->
+      (0..<20).each { d ->
+        add(groups, "group" + g, "org.example:module-" + d + ":1.0", ":p" + g)
+      }
+    }
+
+    def validator = new DependencyValidator([rule])
+    def sequential = validator.validate(groups, 1)
+
+    expect:
+    sequential.size() == 50 * 20
+    validator.validate(groups, 8) == sequential
+  }
+
+  private static void add(DependencyGroups groups, String group, String id, String project) {
+    groups.addOrMerge(group, new DependencyInfo(id, [
+      new DependencySource("compileClasspath", project)
+    ]))
+  }
+}
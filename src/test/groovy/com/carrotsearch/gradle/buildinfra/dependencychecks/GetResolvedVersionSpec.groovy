@@ -37,4 +37,165 @@ class GetResolvedVersionSpec extends AbstractIntegTest {
     then:
     result.output.contains("Hamcrest: 1.3")
   }
+
+  def "Should fail on modules not present in the configuration"() {
+    given:
+    buildFile(
+        """
+        plugins {
+          id 'java-library'
+          id 'com.carrotsearch.gradle.dependencychecks'
+        }
+    
+        repositories {
+          mavenCentral()
+        }
+
+        dependencies {
+          api "junit:junit:4.13.2"
+        }
+
+        task doCheck() {
+          dependsOn configurations.runtimeClasspath
+
+          doFirst {
+            logger.lifecycle("Hamcrest: " 
+                + getResolvedVersion("org.hamcrest:hamcrest-core", configurations.runtimeClasspath))
+            logger.lifecycle("Foo: " 
+                + getResolvedVersion("org.foo:foo", configurations.runtimeClasspath))
+          }
+        }
+        """)
+
+    when:
+    def result = gradleRunner()
+        .withArguments(":doCheck")
+        .buildAndFail()
+
+    then:
+    result.output.contains("Hamcrest: 1.3")
+    result.output.contains("Configuration runtimeClasspath does not contain any reference to org.foo:foo")
+  }
+
+  def "Should resolve versions of many modules at once"() {
+    given:
+    buildFile(
+        """
+        plugins {
+          id 'java-library'
+          id 'com.carrotsearch.gradle.dependencychecks'
+        }
+    
+        repositories {
+          mavenCentral()
+        }
+
+        dependencies {
+          api "junit:junit:4.13.2"
+        }
+
+        def lazyVersions = getResolvedVersions(
+            ["org.hamcrest:hamcrest-core"], configurations.named("runtimeClasspath"))
+
+        task doCheck() {
+          dependsOn configurations.runtimeClasspath
+
+          doFirst {
+            logger.lifecycle("Versions: " 
+                + getResolvedVersions(["org.hamcrest:hamcrest-core", "junit:junit"], configurations.runtimeClasspath))
+            logger.lifecycle("Lazy: " + lazyVersions.get())
+          }
+        }
+        """)
+
+    when:
+    def result = gradleRunner()
+        .withArguments(":doCheck")
+        .build()
+
+    then:
+    result.output.contains("Versions: [org.hamcrest:hamcrest-core:1.3, junit:junit:4.13.2]")
+    result.output.contains("Lazy: [org.hamcrest:hamcrest-core:1.3]")
+  }
+
+  def "Should resolve versions of module identifiers and selectors"() {
+    given:
+    buildFile(
+        """
+        plugins {
+          id 'java-library'
+          id 'com.carrotsearch.gradle.dependencychecks'
+        }
+    
+        repositories {
+          mavenCentral()
+        }
+
+        dependencies {
+          api "junit:junit:4.13.2"
+        }
+
+        task doCheck() {
+          dependsOn configurations.runtimeClasspath
+
+          doFirst {
+            def junit = configurations.api.dependencies.find { it.name == "junit" }
+            logger.lifecycle("Selector: " 
+                + getResolvedVersion(junit, configurations.runtimeClasspath))
+            logger.lifecycle("Identifier: " 
+                + getResolvedVersion(junit.module, configurations.runtimeClasspath))
+          }
+        }
+        """)
+
+    when:
+    def result = gradleRunner()
+        .withArguments(":doCheck")
+        .build()
+
+    then:
+    result.output.contains("Selector: 4.13.2")
+    result.output.contains("Identifier: 4.13.2")
+  }
+
+  def "Should resolve versions of many module identifiers and selectors at once"() {
+    given:
+    buildFile(
+        """
+        plugins {
+          id 'java-library'
+          id 'com.carrotsearch.gradle.dependencychecks'
+        }
+    
+        repositories {
+          mavenCentral()
+        }
+
+        dependencies {
+          api "junit:junit:4.13.2"
+          api "org.hamcrest:hamcrest-core:1.3"
+        }
+
+        task doCheck() {
+          dependsOn configurations.runtimeClasspath
+
+          doFirst {
+            def selectors = configurations.api.dependencies.toList()
+            logger.lifecycle("Selectors: " 
+                + getResolvedVersions(selectors, configurations.runtimeClasspath))
+            logger.lifecycle("Identifiers: " 
+                + getResolvedVersions(selectors*.module, configurations.runtimeClasspath))
+          }
+        }
+        """)
+
+    when:
+    def result = gradleRunner()
+        .withArguments(":doCheck")
+        .build()
+
+    then:
+    result.output.contains("Selectors: [junit:junit:4.13.2, org.hamcrest:hamcrest-core:1.3]")
+    result.output.contains("Identifiers: [junit:junit:4.13.2, org.hamcrest:hamcrest-core:1.3]")
+  }
 }
\ No newline at end of file
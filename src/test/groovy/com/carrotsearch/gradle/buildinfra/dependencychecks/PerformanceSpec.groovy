@@ -0,0 +1,145 @@
+package com.carrotsearch.gradle.buildinfra.dependencychecks
+
+import groovy.json.JsonOutput
+import groovy.json.JsonSlurper
+import org.assertj.core.api.Assertions
+import org.gradle.testkit.runner.GradleRunner
+
+/**
+ * Performance tests on large, synthetic multi-project builds. These are not a part of regular
+ * tests, run them with:
+ *
+ * <pre>
+ * gradlew perfTest [-Ptests.perf.projects=1000 -Ptests.perf.configurations=10 ...]
+ * </pre>
+ *
+ * Results are written to {@code build/perf/results.json}. If {@code tests.perf.baseline} points
+ * at a results file recorded earlier, the test fails when any metric regresses by more than
+ * {@code tests.perf.tolerance} (a fraction, 0.25 by default). Use {@code
+ * tests.perf.updateBaseline=true} to (re)record the baseline instead.
+ */
+class PerformanceSpec extends AbstractIntegTest {
+  def "resolution and lock file tasks on a large multi-project build"() {
+    given:
+    def build = new SyntheticBuild(
+        projects: intProperty("projects", 100),
+        configurations: intProperty("configurations", 4),
+        groups: intProperty("groups", 2),
+        modules: intProperty("modules", 1000),
+        dependenciesPerConfiguration: intProperty("dependenciesPerConfiguration", 10))
+    build.generate(testProjectDir)
+
+    def runner = gradleRunner().withGradleVersion(CHECKED_GRADLE_VERSIONS.last())
+    int iterations = intProperty("iterations", 3)
+
+    when:
+    // Warm up the daemon and compile build scripts.
+    run(runner, "--dry-run", "writeLocks", "checkLocks")
+
+    def metrics = [:]
+    metrics.configuration = measure(iterations) {
+      run(runner, "--dry-run", "writeLocks", "checkLocks")
+    }
+    metrics.resolveConfigurationGroups = measure(iterations) {
+      run(runner, "--rerun-tasks", "resolveConfigurationGroups", "reportPeakHeap")
+    }
+    metrics.writeLocks = measure(iterations) {
+      run(runner, "--rerun-tasks", "writeLocks", "reportPeakHeap")
+    }
+    metrics.checkLocks = measure(iterations) {
+      run(runner, "--rerun-tasks", "checkLocks", "reportPeakHeap")
+    }
+
+    // Execution time is the wall time of a build minus its configuration time.
+    long configurationMs = metrics.configuration.wallMs
+    ["resolveConfigurationGroups", "writeLocks", "checkLocks"].each {
+      metrics[it].executionMs = Math.max(0, metrics[it].wallMs - configurationMs)
+    }
+
+    def buildParameters = build.properties.subMap(
+        "projects", "configurations", "groups", "modules", "dependenciesPerConfiguration")
+    def results = [build: buildParameters, metrics: metrics]
+
+    def resultsJson = JsonOutput.prettyPrint(JsonOutput.toJson(results))
+    def resultsDir = new File(System.getProperty("tests.perf.resultsDir", "build/perf"))
+    resultsDir.mkdirs()
+    new File(resultsDir, "results.json").setText(resultsJson, "UTF-8")
+    println "Performance results:\n" + resultsJson
+
+    then:
+    Assertions.assertThat(regressions(results)).isEmpty()
+  }
+
+  private static int intProperty(String name, int defaultValue) {
+    def value = System.getProperty("tests.perf." + name)
+    return value == null ? defaultValue : Integer.parseInt(value)
+  }
+
+  private static String run(GradleRunner runner, String... args) {
+    return runner.withArguments(args).build().output
+  }
+
+  /**
+   * Runs the build a number of times and returns the minimum wall time and the maximum peak heap
+   * usage reported by the build (if any).
+   */
+  private static Map<String, Long> measure(int iterations, Closure<String> build) {
+    long wallMs = Long.MAX_VALUE
+    Long peakHeapBytes = null
+    for (int i = 0; i < iterations; i++) {
+      long start = System.nanoTime()
+      String output = build.call()
+      wallMs = Math.min(wallMs, (System.nanoTime() - start).intdiv(1_000_000L) as long)
+
+      def matcher = output =~ /PEAK_HEAP_BYTES=(\d+)/
+      if (matcher.find()) {
+        peakHeapBytes = Math.max(peakHeapBytes ?: 0L, Long.parseLong(matcher.group(1)))
+      }
+    }
+
+    def result = [wallMs: wallMs]
+    if (peakHeapBytes != null) {
+      result.peakHeapBytes = peakHeapBytes
+    }
+    return result
+  }
+
+  /**
+   * Compares results against the stored baseline (if any).
+   *
+   * @return A list of regressed metrics.
+   */
+  private static List<String> regressions(Map results) {
+    def baselinePath = System.getProperty("tests.perf.baseline")
+    if (baselinePath == null) {
+      return []
+    }
+
+    def baselineFile = new File(baselinePath)
+    if (Boolean.getBoolean("tests.perf.updateBaseline")) {
+      baselineFile.setText(JsonOutput.prettyPrint(JsonOutput.toJson(results)), "UTF-8")
+      return []
+    }
+
+    def baseline = new JsonSlurper().parse(baselineFile)
+    if (baseline.build != results.build) {
+      return [
+        "Baseline recorded for a different build: ${baseline.build}, current: ${results.build}"
+            .toString()
+      ]
+    }
+
+    double tolerance = Double.parseDouble(System.getProperty("tests.perf.tolerance", "0.25"))
+    def regressions = []
+    results.metrics.each { String phase, Map values ->
+      values.each { String metric, long value ->
+        def base = baseline.metrics[phase]?.get(metric)
+        if (base != null && value > base * (1 + tolerance)) {
+          regressions.add(String.format(Locale.ROOT, "%s.%s: %d (baseline: %d, tolerance: %.0f%%)",
+              phase, metric, value, base as long, tolerance * 100))
+        }
+      }
+    }
+    return regressions
+  }
+}
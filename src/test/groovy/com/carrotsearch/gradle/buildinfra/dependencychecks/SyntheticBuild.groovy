@@ -0,0 +1,154 @@
+package com.carrotsearch.gradle.buildinfra.dependencychecks
+
+/**
+ * Generates a synthetic multi-project build of a given size, together with a local, file-based
+ * Maven repository of (pom-only) modules so that no network access is needed.
+ */
+class SyntheticBuild {
+  /** Number of subprojects. */
+  int projects = 20
+  /** Number of (resolvable) configurations in each subproject. */
+  int configurations = 4
+  /** Number of configuration groups; configurations are assigned to groups round-robin. */
+  int groups = 2
+  /** Number of modules in the local repository. */
+  int modules = 200
+  /** Number of direct dependencies of each configuration. */
+  int dependenciesPerConfiguration = 5
+  /** Maximum number of direct dependencies of each repository module. */
+  int moduleDependencies = 3
+  /** Random seed, the generated build is fully determined by its parameters. */
+  long seed = 0xdeadbeefL
+
+  void generate(File rootDir) {
+    def rnd = new Random(seed)
+    def repoDir = new File(rootDir, "repo")
+    for (int i = 0; i < modules; i++) {
+      writeModule(repoDir, i, rnd)
+    }
+
+    def projectNames = (0..<projects).collect { String.format(Locale.ROOT, "p%04d", it) }
+    def configurationNames = (0..<configurations).collect { "conf" + it }
+
+    write(new File(rootDir, "settings.gradle"),
+        """
+        import java.lang.management.ManagementFactory
+
+        // Reset peak heap usage so that each build reports its own peak.
+        ManagementFactory.memoryPoolMXBeans.each { it.resetPeakUsage() }
+
+        rootProject.name = 'synthetic'
+        ${projectNames.collect { "include '${it}'" }.join("\n        ")}
+        """)
+
+    write(new File(rootDir, "gradle.properties"),
+        """
+        org.gradle.jvmargs=-Xmx${System.getProperty("tests.perf.heap", "2g")}
+        """)
+
+    def groupIncludes = (0..<groups).collect { group ->
+      def included = configurationNames.findAll { (it - "conf").toInteger() % groups == group }
+      def matching = "project.configurations.matching { it.name in ${included.inspect()} }"
+      "group${group} { include ${matching} }"
+    }
+
+    write(new File(rootDir, "build.gradle"),
+        """
+        import java.lang.management.ManagementFactory
+        import java.lang.management.MemoryType
+
+        plugins {
+          id 'com.carrotsearch.gradle.dependencychecks'
+        }
+
+        allprojects {
+          apply plugin: 'com.carrotsearch.gradle.dependencychecks'
+
+          repositories {
+            maven { url = uri("${repoDir.toURI()}") }
+          }
+
+          configurations {
+            ${configurationNames.join("\n            ")}
+          }
+
+          dependencyVersionChecks {
+            configurationGroups {
+              ${groupIncludes.join("\n              ")}
+            }
+          }
+        }
+
+        // Prints the (upper bound of) peak heap usage of this build. Run it as the last task.
+        tasks.register("reportPeakHeap") {
+          mustRunAfter "writeLocks", "checkLocks"
+          mustRunAfter subprojects.collect { prj ->
+            prj.tasks.matching { it.name == "resolveConfigurationGroups" }
+          }
+          doLast {
+            long peak = ManagementFactory.memoryPoolMXBeans
+                .findAll { it.type == MemoryType.HEAP }
+                .sum { it.peakUsage.used }
+            println "PEAK_HEAP_BYTES=" + peak
+          }
+        }
+        """)
+
+    projectNames.each { projectName ->
+      def deps = configurationNames.collectMany { conf ->
+        (0..<dependenciesPerConfiguration).collect {
+          "${conf} \"${coordinates(rnd.nextInt(modules))}\""
+        }
+      }
+
+      write(new File(rootDir, "${projectName}/build.gradle"),
+          """
+          dependencies {
+            ${deps.join("\n            ")}
+          }
+          """)
+    }
+  }
+
+  private void writeModule(File repoDir, int module, Random rnd) {
+    def deps = new TreeSet<Integer>()
+    if (module > 0) {
+      int count = rnd.nextInt(moduleDependencies + 1)
+      for (int i = 0; i < count; i++) {
+        deps.add(rnd.nextInt(module))
+      }
+    }
+
+    def (group, artifact, version) = coordinates(module).split(":")
+    def dir = new File(repoDir, "${group.replace('.', '/')}/${artifact}/${version}")
+    write(new File(dir, "${artifact}-${version}.pom"),
+        """
+        <?xml version="1.0" encoding="UTF-8"?>
+        <project xmlns="http://maven.apache.org/POM/4.0.0">
+          <modelVersion>4.0.0</modelVersion>
+          <groupId>${group}</groupId>
+          <artifactId>${artifact}</artifactId>
+          <version>${version}</version>
+          <packaging>pom</packaging>
+          <dependencies>
+            ${deps.collect { dependency(it) }.join("\n            ")}
+          </dependencies>
+        </project>
+        """)
+  }
+
+  private static String dependency(int module) {
+    def (group, artifact, version) = coordinates(module).split(":")
+    return "<dependency><groupId>${group}</groupId><artifactId>${artifact}</artifactId>" +
+        "<version>${version}</version></dependency>"
+  }
+
+  private static String coordinates(int module) {
+    return "org.synthetic.g${module % 10}:module-${module}:1.${module % 3}"
+  }
+
+  private static void write(File file, String text) {
+    file.parentFile.mkdirs()
+    file.setText(text.stripIndent().stripLeading(), "UTF-8")
+  }
+}